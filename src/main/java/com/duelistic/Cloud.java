@@ -1,22 +1,37 @@
 package com.duelistic;
 
 
+import java.io.IOException;
 import java.util.Scanner;
 
 import com.duelistic.commands.*;
 import com.duelistic.features.party.PartyManager;
 import com.duelistic.http.CloudHttpServer;
+import com.duelistic.system.CdsArchiveManager;
 import com.duelistic.system.CloudConfig;
 import com.duelistic.system.CloudDirectories;
+import com.duelistic.system.CpuAffinityPolicy;
 import com.duelistic.system.BanCleanupService;
 import com.duelistic.system.DashboardMetricsRecorder;
+import com.duelistic.system.LaunchMetrics;
+import com.duelistic.system.LaunchPipeline;
+import com.duelistic.system.LaunchSpecCache;
+import com.duelistic.system.NativeServerProcessManager;
 import com.duelistic.system.OnlinePlayerMetricsRecorder;
+import com.duelistic.system.PortAllocator;
+import com.duelistic.system.ProcessResourceSampler;
 import com.duelistic.system.ScreenServerProcessManager;
 import com.duelistic.system.ServerAutoRenewService;
+import com.duelistic.system.ServerCommandBroadcaster;
+import com.duelistic.system.ServerHangWatchdog;
+import com.duelistic.system.ServerIndexAllocator;
 import com.duelistic.system.ServerLauncher;
 import com.duelistic.system.ServerPlayerRegistry;
+import com.duelistic.system.ServerReconciler;
 import com.duelistic.system.ServerProcessManager;
 import com.duelistic.system.ServerShutdown;
+import com.duelistic.system.ServerStandbyPool;
+import com.duelistic.system.ServerStateJournal;
 import com.duelistic.system.ServerStatusService;
 import com.duelistic.system.ServerSqlSyncService;
 import com.duelistic.system.SqlConfig;
@@ -35,12 +50,20 @@ public class Cloud
     private CommandRegistry commandRegistry;
     private CommandSystem commandSystem;
     private CloudDirectories cloudDirectories;
+    private LaunchMetrics launchMetrics;
+    private CdsArchiveManager cdsArchives;
     private CloudConfig cloudConfig;
     private ServerProcessManager processManager;
     private ServerLauncher serverLauncher;
     private ServerShutdown serverShutdown;
+    private ServerStandbyPool standbyPool;
     private ServerStatusService statusService;
     private ServerAutoRenewService autoRenewService;
+    private ServerCommandBroadcaster commandBroadcaster;
+    private ServerHangWatchdog hangWatchdog;
+    private ServerReconciler reconciler;
+    private ProcessResourceSampler resourceSampler;
+    private CpuAffinityPolicy affinityPolicy;
     private ServerPlayerRegistry playerRegistry;
     private OnlinePlayerMetricsRecorder metricsRecorder;
     private TemplateSqlSyncService templateSqlSyncService;
@@ -63,12 +86,8 @@ public class Cloud
         instance = new Cloud();
         instance.keyScanner = new Scanner(System.in);
         instance.cloudDirectories = new CloudDirectories();
-        instance.processManager = new ScreenServerProcessManager();
         instance.playerRegistry = new ServerPlayerRegistry();
         instance.partyManager = new PartyManager();
-        instance.serverLauncher = new ServerLauncher(instance.cloudDirectories, instance.processManager, instance.playerRegistry);
-        instance.serverShutdown = new ServerShutdown(instance.cloudDirectories, instance.processManager);
-        instance.statusService = new ServerStatusService(instance.cloudDirectories, instance.playerRegistry);
         try {
             instance.cloudDirectories.ensureExists();
             SqlConfig.writeDefaultIfMissing(instance.cloudDirectories.getSqlConfigFile());
@@ -79,6 +98,54 @@ public class Cloud
         }
         instance.cloudConfig = CloudConfig.loadFrom(instance.cloudDirectories.getConfigFile());
         SqlConfig sqlConfig = SqlConfig.loadFrom(instance.cloudDirectories.getSqlConfigFile());
+        if (CloudConfig.PROCESS_MANAGER_NATIVE.equals(instance.cloudConfig.getProcessManager())) {
+            instance.processManager = new NativeServerProcessManager(instance.keyScanner,
+                instance.cloudConfig.getConsoleBufferKb() * 1024);
+        } else {
+            instance.processManager = new ScreenServerProcessManager();
+        }
+        try {
+            instance.cloudDirectories.startReaper(instance.cloudConfig.getReaperWorkers(),
+                instance.cloudConfig.getReaperMaxDeletesPerSecond());
+        } catch (IOException e) {
+            ConsoleUi.warn("Background deletion unavailable, deleting synchronously: " + e.getMessage());
+        }
+
+        LaunchPipeline launchPipeline = new LaunchPipeline(instance.cloudConfig.getLaunchIoWorkers(),
+            instance.cloudConfig.getMaxConcurrentLaunches());
+        PortAllocator portAllocator = new PortAllocator(instance.cloudConfig.getPortRangeStart(),
+            instance.cloudConfig.getPortRangeEnd());
+        ServerIndexAllocator indexAllocator = new ServerIndexAllocator();
+        LaunchSpecCache launchSpecs = new LaunchSpecCache(instance.cloudDirectories);
+        instance.launchMetrics = new LaunchMetrics();
+        instance.cdsArchives = new CdsArchiveManager(instance.cloudDirectories);
+        instance.resourceSampler = new ProcessResourceSampler(instance.processManager,
+            instance.cloudConfig.getResourceSampleIntervalMs());
+        instance.affinityPolicy = new CpuAffinityPolicy(instance.cloudConfig.isCpuAffinity(),
+            instance.cloudConfig.getCpuAffinityCores(),
+            instance.cloudConfig.getCoresPerServer(),
+            instance.resourceSampler);
+        instance.serverLauncher = new ServerLauncher(instance.cloudDirectories,
+            instance.processManager,
+            instance.playerRegistry,
+            launchPipeline,
+            portAllocator,
+            indexAllocator,
+            instance.cdsArchives,
+            instance.launchMetrics,
+            launchSpecs,
+            instance.affinityPolicy,
+            new ServerStateJournal(instance.cloudDirectories.getServerStateFile()),
+            instance.cloudConfig.getLaunchReadyTimeoutMs());
+        instance.standbyPool = new ServerStandbyPool(instance.cloudDirectories, instance.serverLauncher, instance.processManager, instance.playerRegistry, launchSpecs);
+        instance.serverShutdown = new ServerShutdown(instance.cloudDirectories,
+            instance.processManager,
+            instance.serverLauncher,
+            instance.cloudConfig.getStopTimeoutMs(),
+            instance.cloudConfig.getTerminateTimeoutMs(),
+            instance.cloudConfig.getShutdownParallelism(),
+            instance.cloudConfig.getShutdownDeadlineMs());
+        instance.statusService = new ServerStatusService(instance.cloudDirectories, instance.playerRegistry, instance.standbyPool);
 
         instance.virtualResourceUtil = new VirtualResourceUtil(instance.cloudConfig.getVirtualRamLimitMb(), instance.statusService, instance.cloudDirectories);
         instance.autoRenewService = new ServerAutoRenewService(instance.cloudDirectories,
@@ -86,7 +153,35 @@ public class Cloud
             instance.serverLauncher,
             instance.processManager,
             instance.playerRegistry,
-            instance.cloudConfig.getAutoRenewIntervalMs());
+            instance.standbyPool,
+            instance.cloudConfig.getAutoRenewIntervalMs(),
+            instance.cloudConfig.getRecycleCrashedServers());
+        instance.processManager.setExitListener(instance.autoRenewService::onServerExit);
+        instance.hangWatchdog = new ServerHangWatchdog(instance.cloudDirectories,
+            instance.playerRegistry,
+            instance.processManager,
+            name -> instance.serverLauncher.isBooting(name) || instance.serverLauncher.isStopping(name),
+            instance.cloudConfig.getHeartbeatIntervalMs(),
+            instance.cloudConfig.getHangMissedHeartbeats(),
+            instance.cloudConfig.isHangThreadDumps());
+        instance.hangWatchdog.addListener(instance.autoRenewService::onServerHung);
+        try {
+            // Exits of reattached servers are reported, so the exit listener is set first.
+            for (ServerStateJournal.Entry entry : instance.serverLauncher.reattach()) {
+                if (!entry.isAdvertised()) {
+                    instance.standbyPool.adopt(entry.getTemplateName(), entry.getServerName());
+                }
+            }
+        } catch (IOException e) {
+            ConsoleUi.error("Failed to reattach servers: " + e.getMessage());
+        }
+        instance.reconciler = new ServerReconciler(instance.cloudDirectories,
+            instance.processManager,
+            instance.playerRegistry,
+            instance.serverLauncher,
+            instance.standbyPool,
+            instance.cloudConfig.getReconcileIntervalMs(),
+            CloudConfig.ORPHAN_POLICY_FIX.equals(instance.cloudConfig.getOrphanPolicy()));
         instance.templateSqlSyncService = new TemplateSqlSyncService(instance.cloudDirectories,
             sqlConfig,
             instance.cloudConfig.getTemplateSyncIntervalMs());
@@ -100,11 +195,16 @@ public class Cloud
         instance.metricsRecorder = new OnlinePlayerMetricsRecorder(instance.statusService,
             sqlConfig,
             instance.cloudConfig.getOnlineMetricsIntervalMs());
+        instance.commandBroadcaster = new ServerCommandBroadcaster(instance.statusService, instance.processManager);
         if (instance.cloudConfig.isHttpApiEnabled()) {
             instance.httpServer = new CloudHttpServer(instance.statusService,
                 instance.serverShutdown,
                 instance.playerRegistry,
                 instance.partyManager,
+                instance.launchMetrics,
+                instance.processManager,
+                instance.commandBroadcaster,
+                instance.resourceSampler,
                 instance.cloudConfig.getHttpApiPort());
             instance.httpServer.start();
         }
@@ -112,19 +212,25 @@ public class Cloud
         instance.commandSystem = new CommandSystem(instance.keyScanner, instance.commandRegistry);
         instance.commandRegistry.register(new HelpCommand(instance.commandRegistry));
         instance.commandRegistry.register(new SetupCommand(instance.cloudDirectories, instance.keyScanner));
-        instance.commandRegistry.register(new StartCommand(instance.serverLauncher));
-        instance.commandRegistry.register(new TemplateCommand(instance.cloudDirectories, instance.keyScanner));
-        instance.commandRegistry.register(new ServerListCommand(instance.statusService));
+        instance.commandRegistry.register(new StartCommand(instance.serverLauncher, instance.standbyPool));
+        instance.commandRegistry.register(new TemplateCommand(instance.cloudDirectories, launchSpecs, instance.keyScanner));
+        instance.commandRegistry.register(new ServerListCommand(instance.statusService, instance.resourceSampler, instance.affinityPolicy));
         instance.commandRegistry.register(new BanCommand(sqlConfig));
         instance.commandRegistry.register(new UnbanCommand(sqlConfig));
         instance.commandRegistry.register(new ReportCommand(sqlConfig));
-        instance.commandRegistry.register(new StopCommand(instance.commandSystem, instance.serverShutdown, instance.autoRenewService, instance.metricsRecorder, instance.templateSqlSyncService, instance.dashboardMetricsRecorder, instance.banCleanupService, instance.serverSqlSyncService, instance.httpServer));
-        instance.commandRegistry.register(new ResourcesCommand());
+        instance.commandRegistry.register(new StopCommand(instance.commandSystem, instance.cloudDirectories, instance.serverShutdown, instance.autoRenewService, instance.standbyPool, instance.metricsRecorder, instance.templateSqlSyncService, instance.dashboardMetricsRecorder, instance.banCleanupService, instance.serverSqlSyncService, instance.resourceSampler, instance.hangWatchdog, instance.reconciler, instance.cdsArchives, instance.httpServer));
+        instance.commandRegistry.register(new ResourcesCommand(instance.resourceSampler));
         instance.commandRegistry.register(new StartServerCommand(instance.serverLauncher));
         instance.commandRegistry.register(new StopServerCommand(instance.serverShutdown));
+        instance.commandRegistry.register(new LaunchStatsCommand(instance.launchMetrics));
+        instance.commandRegistry.register(new ExecCommand(instance.commandBroadcaster));
+        instance.commandRegistry.register(new ReconcileCommand(instance.reconciler));
         ConsoleUi.logo();
         ConsoleUi.success("Cloud core initialized.");
         instance.autoRenewService.start();
+        instance.resourceSampler.start();
+        instance.hangWatchdog.start();
+        instance.reconciler.start();
         instance.metricsRecorder.start();
         instance.templateSqlSyncService.start();
         instance.dashboardMetricsRecorder.start();
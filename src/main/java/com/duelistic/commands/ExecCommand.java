@@ -0,0 +1,82 @@
+package com.duelistic.commands;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.duelistic.system.ServerCommandBroadcaster;
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Runs a console command on every server of a template and prints their output.
+ */
+public class ExecCommand implements Command {
+    private static final long OUTPUT_TIMEOUT_MS = 2000;
+    private static final long WAIT_MARGIN_MS = 10_000;
+    private final ServerCommandBroadcaster broadcaster;
+
+    /**
+     * Creates the exec command with the shared command broadcaster.
+     */
+    public ExecCommand(ServerCommandBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Returns the CLI command name.
+     */
+    @Override
+    public String getName() {
+        return "exec";
+    }
+
+    /**
+     * Sends the command to all servers of the template in parallel.
+     */
+    @Override
+    public void execute(String[] args) {
+        if (args.length < 2) {
+            ConsoleUi.section("Usage");
+            ConsoleUi.item(getUsage());
+            return;
+        }
+        String templateName = args[0];
+        String command = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+        List<ServerCommandBroadcaster.Result> results;
+        try {
+            results = broadcaster.broadcast(templateName, command, OUTPUT_TIMEOUT_MS)
+                .get(OUTPUT_TIMEOUT_MS + WAIT_MARGIN_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            ConsoleUi.error("Failed to run command on " + templateName + ": " + e.getMessage());
+            return;
+        }
+        if (results.isEmpty()) {
+            ConsoleUi.warn("No servers running for template " + templateName + ".");
+            return;
+        }
+        int delivered = 0;
+        for (ServerCommandBroadcaster.Result result : results) {
+            ConsoleUi.section(result.getServerName());
+            if (!result.isDelivered()) {
+                ConsoleUi.warn("Not delivered.");
+                continue;
+            }
+            delivered++;
+            if (result.getOutput() == null) {
+                ConsoleUi.item("(output not captured)");
+                continue;
+            }
+            for (String line : result.getOutput().split("\\r?\\n")) {
+                if (!line.isEmpty()) {
+                    ConsoleUi.item(line);
+                }
+            }
+        }
+        ConsoleUi.success("Sent to " + delivered + "/" + results.size() + " servers.");
+    }
+
+    @Override
+    public String getUsage() {
+        return "exec <template> <command...>";
+    }
+}
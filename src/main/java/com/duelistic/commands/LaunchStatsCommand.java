@@ -0,0 +1,65 @@
+package com.duelistic.commands;
+
+import java.util.List;
+
+import com.duelistic.system.LaunchMetrics;
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Displays launch phase timing histograms per template.
+ */
+public class LaunchStatsCommand implements Command {
+    private final LaunchMetrics launchMetrics;
+
+    /**
+     * Creates the launch stats command with the shared launch metrics.
+     */
+    public LaunchStatsCommand(LaunchMetrics launchMetrics) {
+        this.launchMetrics = launchMetrics;
+    }
+
+    /**
+     * Returns the CLI command name.
+     */
+    @Override
+    public String getName() {
+        return "launchstats";
+    }
+
+    /**
+     * Prints count, mean, p50, p95, p99 and max of every launch phase.
+     */
+    @Override
+    public void execute(String[] args) {
+        if (args.length > 1) {
+            ConsoleUi.section("Usage");
+            ConsoleUi.item(getUsage());
+            return;
+        }
+        String templateName = args.length == 1 ? args[0] : null;
+        List<LaunchMetrics.Histogram> histograms = launchMetrics.snapshot(templateName);
+        if (histograms.isEmpty()) {
+            ConsoleUi.warn("No launches recorded" + (templateName == null ? "." : " for " + templateName + "."));
+            return;
+        }
+        String currentTemplate = null;
+        for (LaunchMetrics.Histogram histogram : histograms) {
+            if (!histogram.getTemplateName().equals(currentTemplate)) {
+                currentTemplate = histogram.getTemplateName();
+                ConsoleUi.section("Launch phases of " + currentTemplate);
+            }
+            ConsoleUi.item(histogram.getPhase()
+                + " | n=" + histogram.getCount()
+                + " | avg=" + histogram.getAverageMs() + "ms"
+                + " | p50=" + histogram.getPercentileMs(50) + "ms"
+                + " | p95=" + histogram.getPercentileMs(95) + "ms"
+                + " | p99=" + histogram.getPercentileMs(99) + "ms"
+                + " | max=" + histogram.getMaxMs() + "ms");
+        }
+    }
+
+    @Override
+    public String getUsage() {
+        return "launchstats [template]";
+    }
+}
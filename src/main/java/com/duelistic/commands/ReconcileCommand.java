@@ -0,0 +1,56 @@
+package com.duelistic.commands;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.duelistic.system.ServerReconciler;
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Runs a reconciliation sweep right away and prints every orphan it found.
+ */
+public class ReconcileCommand implements Command {
+    private final ServerReconciler reconciler;
+
+    /**
+     * Creates the reconcile command with the shared reconciler.
+     */
+    public ReconcileCommand(ServerReconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    /**
+     * Returns the CLI command name.
+     */
+    @Override
+    public String getName() {
+        return "reconcile";
+    }
+
+    /**
+     * Handles all orphans at once instead of waiting for a second sweep.
+     */
+    @Override
+    public void execute(String[] args) {
+        List<ServerReconciler.Change> changes;
+        try {
+            changes = reconciler.reconcile(true);
+        } catch (IOException e) {
+            ConsoleUi.error("Reconciliation failed: " + e.getMessage());
+            return;
+        }
+        if (changes.isEmpty()) {
+            ConsoleUi.success("Processes, directories and registry agree.");
+            return;
+        }
+        ConsoleUi.section("Orphans");
+        for (ServerReconciler.Change change : changes) {
+            ConsoleUi.item(change.describe());
+        }
+    }
+
+    @Override
+    public String getUsage() {
+        return "reconcile";
+    }
+}
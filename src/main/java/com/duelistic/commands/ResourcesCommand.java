@@ -1,6 +1,10 @@
 package com.duelistic.commands;
 
+import java.util.List;
+import java.util.Locale;
+
 import com.duelistic.Cloud;
+import com.duelistic.system.ProcessResourceSampler;
 import com.duelistic.ui.ConsoleUi;
 import com.duelistic.util.ResourceUtil;
 import com.duelistic.util.VirtualResourceUtil;
@@ -9,6 +13,16 @@ import com.duelistic.util.VirtualResourceUtil;
  * Displays CPU and RAM usage
  */
 public class ResourcesCommand implements Command{
+    private static final int TOP_SERVERS = 5;
+    private final ProcessResourceSampler resourceSampler;
+
+    /**
+     * Creates the resources command with the per-server resource sampler.
+     */
+    public ResourcesCommand(ProcessResourceSampler resourceSampler) {
+        this.resourceSampler = resourceSampler;
+    }
+
     @Override
     public String getName() {
         return "resources";
@@ -21,6 +35,31 @@ public class ResourcesCommand implements Command{
     public void execute(String[] args) {
         ConsoleUi.info("RAM: " + getFormattedRamUsage());
         ConsoleUi.info("CPU: (System based) " + ResourceUtil.getCPUUsage() + "%");
+        List<ProcessResourceSampler.Usage> usage = resourceSampler.listUsage();
+        if (usage.isEmpty()) {
+            return;
+        }
+        long totalRssMb = 0;
+        for (ProcessResourceSampler.Usage server : usage) {
+            totalRssMb += Math.max(0, server.getRssMb());
+        }
+        ConsoleUi.info("Servers: (Measured) " + totalRssMb + " MiB resident in " + usage.size() + " processes");
+        ConsoleUi.section("Top servers by CPU");
+        for (ProcessResourceSampler.Usage server : usage.subList(0, Math.min(TOP_SERVERS, usage.size()))) {
+            ConsoleUi.item(server.getServerName() + formatUsage(server));
+        }
+    }
+
+    /**
+     * Formats measured CPU and memory of a server as list columns, or an empty string if unknown.
+     */
+    static String formatUsage(ProcessResourceSampler.Usage usage) {
+        if (usage == null) {
+            return "";
+        }
+        String cpu = usage.getCpuPercent() < 0 ? "?" : String.format(Locale.ROOT, "%.1f", usage.getCpuPercent());
+        String rss = usage.getRssMb() < 0 ? "?" : String.valueOf(usage.getRssMb());
+        return " | cpu=" + cpu + "% | rss=" + rss + " MiB";
     }
 
 
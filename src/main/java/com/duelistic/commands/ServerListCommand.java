@@ -3,6 +3,8 @@ package com.duelistic.commands;
 import java.io.IOException;
 import java.util.List;
 
+import com.duelistic.system.CpuAffinityPolicy;
+import com.duelistic.system.ProcessResourceSampler;
 import com.duelistic.system.ServerStatus;
 import com.duelistic.system.ServerStatusService;
 import com.duelistic.ui.ConsoleUi;
@@ -12,12 +14,18 @@ import com.duelistic.ui.ConsoleUi;
  */
 public class ServerListCommand implements Command {
     private final ServerStatusService statusService;
+    private final ProcessResourceSampler resourceSampler;
+    private final CpuAffinityPolicy affinityPolicy;
 
     /**
-     * Creates the server list command with status service.
+     * Creates the server list command with status service, resource sampler and core placement.
      */
-    public ServerListCommand(ServerStatusService statusService) {
+    public ServerListCommand(ServerStatusService statusService,
+                             ProcessResourceSampler resourceSampler,
+                             CpuAffinityPolicy affinityPolicy) {
         this.statusService = statusService;
+        this.resourceSampler = resourceSampler;
+        this.affinityPolicy = affinityPolicy;
     }
 
     /**
@@ -48,13 +56,22 @@ public class ServerListCommand implements Command {
                     + " | template=" + status.getTemplate()
                     + " | port=" + status.getPort()
                     + " | players=" + status.getCurrentPlayers() + "/" + status.getMaxPlayers()
-                    + " | " + online);
+                    + " | " + online
+                    + ResourcesCommand.formatUsage(resourceSampler.getUsage(status.getName()))
+                    + formatCores(affinityPolicy.getAssignment(status.getName())));
             }
         } catch (IOException e) {
             ConsoleUi.error("Failed to list servers: " + e.getMessage());
         }
     }
 
+    /**
+     * Formats the pinned cores of a server as a list column, or an empty string if it is not pinned.
+     */
+    private static String formatCores(String cores) {
+        return cores == null ? "" : " | cores=" + cores;
+    }
+
     @Override
     public String getUsage() {
         return "servers";
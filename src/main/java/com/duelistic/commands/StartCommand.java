@@ -3,6 +3,7 @@ package com.duelistic.commands;
 import java.io.IOException;
 
 import com.duelistic.system.ServerLauncher;
+import com.duelistic.system.ServerStandbyPool;
 import com.duelistic.ui.ConsoleUi;
 
 /**
@@ -10,12 +11,14 @@ import com.duelistic.ui.ConsoleUi;
  */
 public class StartCommand implements Command {
     private final ServerLauncher launcher;
+    private final ServerStandbyPool standbyPool;
 
     /**
-     * Creates the start command with a server launcher.
+     * Creates the start command with a server launcher and standby pool.
      */
-    public StartCommand(ServerLauncher launcher) {
+    public StartCommand(ServerLauncher launcher, ServerStandbyPool standbyPool) {
         this.launcher = launcher;
+        this.standbyPool = standbyPool;
     }
 
     /**
@@ -37,6 +40,7 @@ public class StartCommand implements Command {
             ConsoleUi.info("Starting template servers...");
             int created = launcher.startAll();
             ConsoleUi.success("Created " + created + " temporary servers.");
+            standbyPool.refillAll();
         } catch (IOException e) {
             ConsoleUi.error("Start failed: " + e.getMessage());
         }
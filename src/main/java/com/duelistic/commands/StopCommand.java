@@ -1,51 +1,83 @@
 package com.duelistic.commands;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import com.duelistic.system.CdsArchiveManager;
+import com.duelistic.system.CloudDirectories;
 import com.duelistic.system.ServerAutoRenewService;
 import com.duelistic.system.ServerShutdown;
+import com.duelistic.system.ServerStandbyPool;
 import com.duelistic.system.OnlinePlayerMetricsRecorder;
 import com.duelistic.system.DashboardMetricsRecorder;
 import com.duelistic.ui.ConsoleUi;
 import com.duelistic.system.TemplateSqlSyncService;
 import com.duelistic.system.BanCleanupService;
 import com.duelistic.system.ServerSqlSyncService;
+import com.duelistic.system.ProcessResourceSampler;
+import com.duelistic.system.ServerHangWatchdog;
+import com.duelistic.system.ServerReconciler;
 import com.duelistic.http.CloudHttpServer;
 
 /**
  * Stops all running servers and background services.
+ *
+ * <p>With {@code --keep-servers} the servers keep running and the next cloud start
+ * reattaches to them, e.g. to upgrade the cloud without ending games.</p>
  */
 public class StopCommand implements Command {
+    private static final long STOP_ALL_MARGIN_MS = 10_000;
+    private static final String KEEP_SERVERS_FLAG = "--keep-servers";
+    private static final long REAPER_DRAIN_TIMEOUT_MS = 30_000;
     private final CommandSystem commandSystem;
+    private final CloudDirectories directories;
     private final ServerShutdown shutdown;
     private final ServerAutoRenewService autoRenewService;
+    private final ServerStandbyPool standbyPool;
     private final OnlinePlayerMetricsRecorder metricsRecorder;
     private final TemplateSqlSyncService templateSqlSyncService;
     private final DashboardMetricsRecorder dashboardMetricsRecorder;
     private final BanCleanupService banCleanupService;
     private final ServerSqlSyncService serverSqlSyncService;
+    private final ProcessResourceSampler resourceSampler;
+    private final ServerHangWatchdog hangWatchdog;
+    private final ServerReconciler reconciler;
+    private final CdsArchiveManager cdsArchives;
     private final CloudHttpServer httpServer;
 
     /**
      * Creates the stop command with all shutdown dependencies.
      */
     public StopCommand(CommandSystem commandSystem,
+                       CloudDirectories directories,
                        ServerShutdown shutdown,
                        ServerAutoRenewService autoRenewService,
+                       ServerStandbyPool standbyPool,
                        OnlinePlayerMetricsRecorder metricsRecorder,
                        TemplateSqlSyncService templateSqlSyncService,
                        DashboardMetricsRecorder dashboardMetricsRecorder,
                        BanCleanupService banCleanupService,
                        ServerSqlSyncService serverSqlSyncService,
+                       ProcessResourceSampler resourceSampler,
+                       ServerHangWatchdog hangWatchdog,
+                       ServerReconciler reconciler,
+                       CdsArchiveManager cdsArchives,
                        CloudHttpServer httpServer) {
         this.commandSystem = commandSystem;
+        this.directories = directories;
         this.shutdown = shutdown;
         this.autoRenewService = autoRenewService;
+        this.standbyPool = standbyPool;
         this.metricsRecorder = metricsRecorder;
         this.templateSqlSyncService = templateSqlSyncService;
         this.dashboardMetricsRecorder = dashboardMetricsRecorder;
         this.banCleanupService = banCleanupService;
         this.serverSqlSyncService = serverSqlSyncService;
+        this.resourceSampler = resourceSampler;
+        this.hangWatchdog = hangWatchdog;
+        this.reconciler = reconciler;
+        this.cdsArchives = cdsArchives;
         this.httpServer = httpServer;
     }
 
@@ -62,13 +94,27 @@ public class StopCommand implements Command {
      */
     @Override
     public void execute(String[] args) {
+        boolean keepServers = args.length > 0 && KEEP_SERVERS_FLAG.equalsIgnoreCase(args[0]);
         ConsoleUi.info("Stopping Duelistic Cloud...");
+        standbyPool.stop();
+        // Servers going quiet while they save must not be restarted as hung.
+        hangWatchdog.stop();
+        reconciler.stop();
+        // Kills a training server, which no server listing knows about.
+        cdsArchives.stop();
 
-        try {
-            int stopped = shutdown.stopAll().get();
-            ConsoleUi.success("Stopped " + stopped + " servers.");
-        } catch (Exception e) {
-            ConsoleUi.error("Failed to delete tmp servers: " + e.getMessage());
+        if (keepServers) {
+            ConsoleUi.info("Leaving servers running, the next start reattaches to them.");
+        } else {
+            try {
+                // The shutdown kills servers at its deadline; the margin covers the directory deletes.
+                int stopped = shutdown.stopAll().get(shutdown.getDeadlineMs() + STOP_ALL_MARGIN_MS, TimeUnit.MILLISECONDS);
+                ConsoleUi.success("Stopped " + stopped + " servers.");
+            } catch (TimeoutException e) {
+                ConsoleUi.error("Servers did not stop in time, continuing shutdown.");
+            } catch (Exception e) {
+                ConsoleUi.error("Failed to delete tmp servers: " + e.getMessage());
+            }
         }
 
         autoRenewService.stop();
@@ -77,17 +123,24 @@ public class StopCommand implements Command {
         dashboardMetricsRecorder.stop();
         banCleanupService.stop();
         serverSqlSyncService.stop();
+        resourceSampler.stop();
 
         if (httpServer != null) {
             httpServer.stop();
         }
 
+        // Deleted server directories are only moved to the trash, so their deletes finish here.
+        int undeleted = directories.stopReaper(REAPER_DRAIN_TIMEOUT_MS);
+        if (undeleted > 0) {
+            ConsoleUi.warn(undeleted + " directories are still being deleted, resuming on the next start.");
+        }
+
         commandSystem.stop();
     }
 
 
     @Override
     public String getUsage() {
-        return "stop";
+        return "stop [" + KEEP_SERVERS_FLAG + "]";
     }
 }
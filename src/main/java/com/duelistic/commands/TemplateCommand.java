@@ -5,6 +5,12 @@ import java.util.List;
 import java.util.Scanner;
 
 import com.duelistic.system.CloudDirectories;
+import com.duelistic.system.LaunchSpec;
+import com.duelistic.system.LaunchSpecCache;
+import com.duelistic.system.ManifestDiff;
+import com.duelistic.system.ProvisionResult;
+import com.duelistic.system.ServerReconciler;
+import com.duelistic.system.TemplateManifest;
 import com.duelistic.system.TemplateConfig;
 import com.duelistic.ui.ConsoleUi;
 
@@ -13,13 +19,15 @@ import com.duelistic.ui.ConsoleUi;
  */
 public class TemplateCommand implements Command {
     private final CloudDirectories directories;
+    private final LaunchSpecCache specs;
     private final TemplateConfigPrompter prompter;
 
     /**
      * Creates the template command with directory helper and input scanner.
      */
-    public TemplateCommand(CloudDirectories directories, Scanner scanner) {
+    public TemplateCommand(CloudDirectories directories, LaunchSpecCache specs, Scanner scanner) {
         this.directories = directories;
+        this.specs = specs;
         this.prompter = new TemplateConfigPrompter(scanner);
     }
 
@@ -32,7 +40,7 @@ public class TemplateCommand implements Command {
     }
 
     /**
-     * Dispatches template subcommands (add/remove/list).
+     * Dispatches template subcommands (add/remove/list/diff).
      */
     @Override
     public void execute(String[] args) {
@@ -54,6 +62,10 @@ public class TemplateCommand implements Command {
             handleList();
             return;
         }
+        if ("diff".equals(action)) {
+            handleDiff(args);
+            return;
+        }
 
         printUsage();
     }
@@ -105,6 +117,11 @@ public class TemplateCommand implements Command {
                 ConsoleUi.warn("Template not found: " + name);
                 return;
             }
+            List<String> children = directories.listChildTemplates(name);
+            if (!children.isEmpty()) {
+                ConsoleUi.warn("Template " + name + " is the parent of: " + String.join(", ", children));
+                return;
+            }
             directories.deleteTemplate(name);
             ConsoleUi.success("Template removed: " + name);
         } catch (IOException e) {
@@ -131,6 +148,62 @@ public class TemplateCommand implements Command {
         }
     }
 
+    /**
+     * Shows which tmp servers drifted from their template.
+     */
+    private void handleDiff(String[] args) {
+        if (args.length < 2) {
+            ConsoleUi.warn("Missing template name.");
+            printUsage();
+            return;
+        }
+        String name = args[1].trim();
+        try {
+            if (!directories.templateExists(name)) {
+                ConsoleUi.warn("Template not found: " + name);
+                return;
+            }
+            List<String> templates = directories.listTemplates();
+            LaunchSpec spec = specs.get(name);
+            if (args.length >= 3) {
+                String serverName = args[2].trim();
+                if (!name.equals(ServerReconciler.templateOf(serverName, templates))) {
+                    ConsoleUi.warn(serverName + " is not a server of template " + name + ".");
+                    return;
+                }
+                ManifestDiff diff = directories.diffServer(spec, serverName);
+                ConsoleUi.section("Diff " + serverName + " (" + diff.summary() + ")");
+                for (String path : diff.getAdded()) {
+                    ConsoleUi.item("+ " + path);
+                }
+                for (String path : diff.getChanged()) {
+                    ConsoleUi.item("~ " + path);
+                }
+                for (String path : diff.getRemoved()) {
+                    ConsoleUi.item("- " + path);
+                }
+                return;
+            }
+            TemplateManifest manifest = directories.getTemplateManifest(name);
+            ConsoleUi.section("Template " + name + " (" + manifest.getFileCount() + " files / "
+                + ProvisionResult.formatBytes(manifest.getTotalBytes()) + ")");
+            boolean found = false;
+            for (String serverName : directories.listTmpServers()) {
+                // Prefix matching would also pick up servers of e.g. "duel-ranked" for "duel".
+                if (!name.equals(ServerReconciler.templateOf(serverName, templates))) {
+                    continue;
+                }
+                found = true;
+                ConsoleUi.item(serverName + ": " + directories.diffServer(spec, serverName).summary());
+            }
+            if (!found) {
+                ConsoleUi.item("No servers for this template.");
+            }
+        } catch (IOException e) {
+            ConsoleUi.error("Failed to diff template: " + e.getMessage());
+        }
+    }
+
     /**
      * Prints CLI usage for template commands.
      */
@@ -139,9 +212,10 @@ public class TemplateCommand implements Command {
         ConsoleUi.item("template add <name>");
         ConsoleUi.item("template remove <name>");
         ConsoleUi.item("template list");
+        ConsoleUi.item("template diff <name> [server]");
     }
 
     public String getUsage() {
-        return "template [add / remove] name | template list";
+        return "template [add / remove] name | template list | template diff name [server]";
     }
 }
@@ -4,7 +4,12 @@ import com.duelistic.features.party.Party;
 import com.duelistic.features.party.PartyInvite;
 import com.duelistic.features.party.PartyManager;
 import com.duelistic.features.party.PartyUser;
+import com.duelistic.system.ConsoleBuffer;
+import com.duelistic.system.LaunchMetrics;
+import com.duelistic.system.ProcessResourceSampler;
+import com.duelistic.system.ServerCommandBroadcaster;
 import com.duelistic.system.ServerPlayerRegistry;
+import com.duelistic.system.ServerProcessManager;
 import com.duelistic.system.ServerShutdown;
 import com.duelistic.system.ServerStatus;
 import com.duelistic.system.ServerStatusService;
@@ -22,6 +27,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
@@ -32,11 +38,20 @@ import java.util.concurrent.Executors;
  */
 public class CloudHttpServer {
     private static final String LOCAL_HOST = "127.0.0.1";
+    private static final int DEFAULT_CONSOLE_LINES = 100;
+    private static final int MAX_CONSOLE_LINES = 10_000;
+    private static final long FOLLOW_POLL_MS = 15_000;
+    private static final int DEFAULT_COMMAND_TIMEOUT_MS = 2000;
+    private static final int MAX_COMMAND_TIMEOUT_MS = 30_000;
 
     private final ServerStatusService statusService;
     private final ServerShutdown serverShutdown;
     private final ServerPlayerRegistry playerRegistry;
     private final PartyManager partyManager;
+    private final LaunchMetrics launchMetrics;
+    private final ServerProcessManager processManager;
+    private final ServerCommandBroadcaster commandBroadcaster;
+    private final ProcessResourceSampler resourceSampler;
     private final int port;
     private HttpServer server;
     private ExecutorService executor;
@@ -48,11 +63,19 @@ public class CloudHttpServer {
                            ServerShutdown serverShutdown,
                            ServerPlayerRegistry playerRegistry,
                            PartyManager partyManager,
+                           LaunchMetrics launchMetrics,
+                           ServerProcessManager processManager,
+                           ServerCommandBroadcaster commandBroadcaster,
+                           ProcessResourceSampler resourceSampler,
                            int port) {
         this.statusService = statusService;
         this.serverShutdown = serverShutdown;
         this.playerRegistry = playerRegistry;
         this.partyManager = partyManager;
+        this.launchMetrics = launchMetrics;
+        this.processManager = processManager;
+        this.commandBroadcaster = commandBroadcaster;
+        this.resourceSampler = resourceSampler;
         this.port = port;
     }
 
@@ -73,6 +96,8 @@ public class CloudHttpServer {
         server.createContext("/api/health", this::handleHealth);
         server.createContext("/api/servers", this::handleServers);
         server.createContext("/api/parties", this::handleParties);
+        server.createContext("/api/launchstats", this::handleLaunchStats);
+        server.createContext("/api/templates", this::handleTemplates);
         executor = Executors.newCachedThreadPool();
         server.setExecutor(executor);
         server.start();
@@ -123,6 +148,10 @@ public class CloudHttpServer {
                 handleStopServer(exchange, path);
                 return;
             }
+            if (path.startsWith("/api/servers/") && path.endsWith("/console")) {
+                handleConsole(exchange, path);
+                return;
+            }
             if (path.startsWith("/api/servers/") && path.endsWith("/players")) {
                 handleSetCurrentPlayers(exchange, path);
                 return;
@@ -142,6 +171,62 @@ public class CloudHttpServer {
         sendJson(exchange, 404, "{\"error\":\"not_found\"}");
     }
 
+    private void handleLaunchStats(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJson(exchange, 405, "{\"error\":\"method_not_allowed\"}");
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        String template = path.replaceFirst("^/api/launchstats/?", "").trim();
+        sendJson(exchange, 200, buildLaunchStatsPayload(launchMetrics.snapshot(template.isEmpty() ? null : template)));
+    }
+
+    private void handleTemplates(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path == null || !path.startsWith("/api/templates/") || !path.endsWith("/command")) {
+            sendJson(exchange, 404, "{\"error\":\"not_found\"}");
+            return;
+        }
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJson(exchange, 405, "{\"error\":\"method_not_allowed\"}");
+            return;
+        }
+        String template = path.replaceFirst("^/api/templates/?", "").replaceFirst("/command$", "").trim();
+        if (template.isEmpty()) {
+            sendJson(exchange, 404, "{\"error\":\"not_found\"}");
+            return;
+        }
+        String query = exchange.getRequestURI().getQuery();
+        String command = readQueryValue(query, "command");
+        if (command == null || command.trim().isEmpty()) {
+            sendJson(exchange, 400, "{\"error\":\"missing_command\"}");
+            return;
+        }
+        Integer timeoutMs = readQueryInt(query, "timeoutMs");
+        long timeout = Math.max(0, Math.min(MAX_COMMAND_TIMEOUT_MS,
+            timeoutMs == null ? DEFAULT_COMMAND_TIMEOUT_MS : timeoutMs));
+        try {
+            commandBroadcaster.broadcast(template, command.trim(), timeout)
+                .thenAccept(results -> {
+                    try {
+                        sendJson(exchange, 200, buildCommandPayload(template, results));
+                    } catch (IOException e) {
+                        ConsoleUi.error("Failed to write HTTP response: " + e.getMessage());
+                    }
+                })
+                .exceptionally(ex -> {
+                    try {
+                        sendJson(exchange, 500, "{\"error\":\"failed_to_send_command\"}");
+                    } catch (IOException e) {
+                        ConsoleUi.error("Failed to write HTTP error response: " + e.getMessage());
+                    }
+                    return null;
+                });
+        } catch (IOException e) {
+            sendJson(exchange, 500, "{\"error\":\"failed_to_list_servers\"}");
+        }
+    }
+
     private void handleParties(HttpExchange exchange) throws IOException {
         String path = exchange.getRequestURI().getPath();
         if ("/api/parties".equals(path) || "/api/parties/".equals(path)) {
@@ -305,6 +390,46 @@ public class CloudHttpServer {
         }
     }
 
+    private void handleConsole(HttpExchange exchange, String path) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJson(exchange, 405, "{\"error\":\"method_not_allowed\"}");
+            return;
+        }
+        String name = path.replaceFirst("^/api/servers/?", "").replaceFirst("/console$", "").trim();
+        ConsoleBuffer console = name.isEmpty() ? null : processManager.getConsole(name);
+        if (console == null) {
+            sendJson(exchange, 404, "{\"error\":\"not_found\"}");
+            return;
+        }
+        String query = exchange.getRequestURI().getQuery();
+        Integer lines = readQueryInt(query, "lines");
+        int tailLines = Math.max(0, Math.min(MAX_CONSOLE_LINES, lines == null ? DEFAULT_CONSOLE_LINES : lines));
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        if (!Boolean.TRUE.equals(readQueryBoolean(query, "follow"))) {
+            byte[] bytes = console.tail(tailLines);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+            return;
+        }
+        // Chunked response that stays open until the server exits or the client disconnects.
+        exchange.sendResponseHeaders(200, 0);
+        ConsoleBuffer.Follower follower = console.follow(tailLines);
+        byte[] chunk = new byte[8192];
+        try (OutputStream out = exchange.getResponseBody()) {
+            int read;
+            while ((read = follower.read(chunk, FOLLOW_POLL_MS)) >= 0) {
+                if (read > 0) {
+                    out.write(chunk, 0, read);
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void handleStopServer(HttpExchange exchange, String path) throws IOException {
         if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
             sendJson(exchange, 405, "{\"error\":\"method_not_allowed\"}");
@@ -402,7 +527,8 @@ public class CloudHttpServer {
                 .filter(status -> status.getName().equalsIgnoreCase(name))
                 .findFirst();
             if (match.isPresent()) {
-                sendJson(exchange, 200, buildServerPayload(match.get()));
+                ServerStatus status = match.get();
+                sendJson(exchange, 200, buildServerPayload(status, resourceSampler.getUsage(status.getName())));
             } else {
                 sendJson(exchange, 404, "{\"error\":\"not_found\"}");
             }
@@ -420,14 +546,60 @@ public class CloudHttpServer {
         }
     }
 
-    private static String buildServersPayload(List<ServerStatus> statuses) {
+    private String buildServersPayload(List<ServerStatus> statuses) {
         StringBuilder builder = new StringBuilder();
         builder.append("{\"count\":").append(statuses.size()).append(",\"servers\":[");
         for (int i = 0; i < statuses.size(); i++) {
             if (i > 0) {
                 builder.append(",");
             }
-            builder.append(buildServerPayload(statuses.get(i)));
+            ServerStatus status = statuses.get(i);
+            builder.append(buildServerPayload(status, resourceSampler.getUsage(status.getName())));
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    private static String buildLaunchStatsPayload(List<LaunchMetrics.Histogram> histograms) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"count\":").append(histograms.size()).append(",\"phases\":[");
+        for (int i = 0; i < histograms.size(); i++) {
+            if (i > 0) {
+                builder.append(",");
+            }
+            LaunchMetrics.Histogram histogram = histograms.get(i);
+            builder.append("{\"template\":\"").append(escape(histogram.getTemplateName())).append("\",");
+            builder.append("\"phase\":\"").append(escape(histogram.getPhase())).append("\",");
+            builder.append("\"samples\":").append(histogram.getCount()).append(",");
+            builder.append("\"avgMs\":").append(histogram.getAverageMs()).append(",");
+            builder.append("\"p50Ms\":").append(histogram.getPercentileMs(50)).append(",");
+            builder.append("\"p95Ms\":").append(histogram.getPercentileMs(95)).append(",");
+            builder.append("\"p99Ms\":").append(histogram.getPercentileMs(99)).append(",");
+            builder.append("\"maxMs\":").append(histogram.getMaxMs());
+            builder.append("}");
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    private static String buildCommandPayload(String template, List<ServerCommandBroadcaster.Result> results) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"template\":\"").append(escape(template)).append("\",");
+        builder.append("\"count\":").append(results.size()).append(",\"servers\":[");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                builder.append(",");
+            }
+            ServerCommandBroadcaster.Result result = results.get(i);
+            builder.append("{\"name\":\"").append(escape(result.getServerName())).append("\",");
+            builder.append("\"delivered\":").append(result.isDelivered()).append(",");
+            builder.append("\"output\":");
+            if (result.getOutput() == null) {
+                builder.append("null");
+            } else {
+                builder.append("\"").append(escape(result.getOutput())).append("\"");
+            }
+            builder.append("}");
         }
         builder.append("]}");
         return builder.toString();
@@ -476,7 +648,7 @@ public class CloudHttpServer {
         return builder.toString();
     }
 
-    private static String buildServerPayload(ServerStatus status) {
+    private static String buildServerPayload(ServerStatus status, ProcessResourceSampler.Usage usage) {
         StringBuilder builder = new StringBuilder();
         builder.append("{\"name\":\"").append(escape(status.getName())).append("\",");
         builder.append("\"template\":\"").append(escape(status.getTemplate())).append("\",");
@@ -484,11 +656,21 @@ public class CloudHttpServer {
         builder.append("\"online\":").append(status.isOnline()).append(",");
         builder.append("\"currentPlayers\":").append(status.getCurrentPlayers()).append(",");
         builder.append("\"maxPlayers\":").append(status.getMaxPlayers()).append(",");
-        builder.append("\"startedAt\":").append(formatInstant(status.getStartedAt()));
+        builder.append("\"startedAt\":").append(formatInstant(status.getStartedAt())).append(",");
+        builder.append("\"pid\":").append(usage == null ? "null" : String.valueOf(usage.getPid())).append(",");
+        builder.append("\"cpuPercent\":").append(usage == null || usage.getCpuPercent() < 0
+            ? "null" : String.format(Locale.ROOT, "%.1f", usage.getCpuPercent())).append(",");
+        builder.append("\"rssMb\":").append(formatKnown(usage == null ? -1 : usage.getRssMb())).append(",");
+        builder.append("\"diskReadBytes\":").append(formatKnown(usage == null ? -1 : usage.getReadBytes())).append(",");
+        builder.append("\"diskWriteBytes\":").append(formatKnown(usage == null ? -1 : usage.getWriteBytes()));
         builder.append("}");
         return builder.toString();
     }
 
+    private static String formatKnown(long value) {
+        return value < 0 ? "null" : String.valueOf(value);
+    }
+
     private static String formatInstant(Instant instant) {
         if (instant == null) {
             return "null";
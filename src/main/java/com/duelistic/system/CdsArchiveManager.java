@@ -0,0 +1,251 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Stores per-template AppCDS archives and records how they affect boot times.
+ *
+ * <p>Archives are keyed by the SHA-256 of the server jar, so a changed jar simply
+ * misses the cache and triggers a new training run. Training runs one at a time on
+ * a background thread and never blocks regular launches.</p>
+ */
+public class CdsArchiveManager {
+    private static final long TRAINING_POLL_INTERVAL_MS = 500;
+    private static final long TRAINING_STOP_TIMEOUT_MS = 60_000;
+    private static final long TRAINER_SHUTDOWN_TIMEOUT_MS = 10_000;
+    private final CloudDirectories directories;
+    private final ExecutorService trainer;
+    private final Set<String> training = new HashSet<>();
+    private final Set<String> failed = new HashSet<>();
+    private final Map<String, long[]> boots = new HashMap<>();
+    private volatile Process trainingProcess;
+
+    /**
+     * Creates an archive manager storing archives below the cloud base directory.
+     */
+    public CdsArchiveManager(CloudDirectories directories) {
+        this.directories = directories;
+        this.trainer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cds-trainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the SHA-256 of a server jar, using the template manifest when it lists the jar.
+     */
+    public String hashJar(String templateName, Path jarFile) throws IOException {
+        // Launches provision right before hashing, so the last manifest is current.
+        TemplateManifest manifest = directories.getLastManifest(templateName);
+        if (manifest == null) {
+            manifest = directories.getTemplateManifest(templateName);
+        }
+        TemplateManifest.Entry entry = manifest.get(jarFile.getFileName().toString());
+        if (entry != null && !entry.isDirectory()) {
+            return entry.getHash();
+        }
+        return TemplateManifest.hash(jarFile);
+    }
+
+    /**
+     * Returns the archive for a template and jar hash, or null if none was trained yet.
+     */
+    public Path findArchive(String templateName, String jarHash) {
+        Path archive = getArchiveFile(templateName, jarHash);
+        return Files.isRegularFile(archive) ? archive : null;
+    }
+
+    /**
+     * Returns the archive location for a template and jar hash.
+     */
+    public Path getArchiveFile(String templateName, String jarHash) {
+        return directories.getCdsDir(templateName).resolve(jarHash + ".jsa");
+    }
+
+    /**
+     * Queues a training job unless one already ran or is running for this jar.
+     */
+    public synchronized void scheduleTraining(String templateName, String jarHash, Callable<Void> job) {
+        String key = templateName + "@" + jarHash;
+        if (training.contains(key) || failed.contains(key)) {
+            return;
+        }
+        training.add(key);
+        ConsoleUi.info("Training CDS archive for template " + templateName + " in the background.");
+        trainer.submit(() -> {
+            try {
+                job.call();
+            } catch (Exception e) {
+                ConsoleUi.warn("CDS training for " + templateName + " failed: " + e.getMessage());
+                synchronized (this) {
+                    failed.add(key);
+                }
+            } finally {
+                synchronized (this) {
+                    training.remove(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a prepared server once, stops it after it became ready and stores the class archive.
+     *
+     * @param workDir provisioned server directory used only for training.
+     * @param ready probe that reports when the server finished booting.
+     */
+    public void train(String templateName,
+                      String jarHash,
+                      Path workDir,
+                      Path jarFile,
+                      int ramMb,
+                      BooleanSupplier ready,
+                      long timeoutMs) throws IOException {
+        Path archive = getArchiveFile(templateName, jarHash);
+        Files.createDirectories(archive.getParent());
+        Path pending = archive.resolveSibling(jarHash + ".jsa.tmp");
+        Files.deleteIfExists(pending);
+        List<String> command = new ArrayList<>();
+        command.add("java");
+        command.add("-Xms" + ramMb + "M");
+        command.add("-Xmx" + ramMb + "M");
+        command.add("-XX:ArchiveClassesAtExit=" + pending.toAbsolutePath());
+        command.add("-jar");
+        command.add(jarFile.getFileName().toString());
+        Process process = new ProcessBuilder(command)
+            .directory(workDir.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(workDir.resolve("cds-training.log").toFile())
+            .start();
+        trainingProcess = process;
+        try {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (process.isAlive() && !ready.getAsBoolean()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("training server did not become ready within " + timeoutMs + "ms");
+                }
+                Thread.sleep(TRAINING_POLL_INTERVAL_MS);
+            }
+            if (!process.isAlive()) {
+                throw new IOException("training server exited early with code " + process.exitValue());
+            }
+            // A clean shutdown makes the JVM dump all loaded classes into the archive.
+            try (OutputStream stdin = process.getOutputStream()) {
+                stdin.write("stop\n".getBytes(StandardCharsets.UTF_8));
+            }
+            if (!process.waitFor(TRAINING_STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new IOException("training server did not stop");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("training interrupted", e);
+        } finally {
+            trainingProcess = null;
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+        if (!Files.isRegularFile(pending) || Files.size(pending) == 0) {
+            throw new IOException("JVM wrote no archive (AppCDS needs JDK 13 or newer)");
+        }
+        Files.move(pending, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteStaleArchives(templateName, archive);
+        ConsoleUi.success("CDS archive for template " + templateName + " is ready ("
+            + ProvisionResult.formatBytes(Files.size(archive)) + ").");
+    }
+
+    /**
+     * Records how long a server of a CDS-enabled template took to become ready.
+     */
+    public synchronized void recordBoot(String templateName, boolean withArchive, long bootMs) {
+        // Slots: boots with archive, total ms with archive, boots without, total ms without.
+        long[] stats = boots.computeIfAbsent(templateName, key -> new long[4]);
+        int offset = withArchive ? 0 : 2;
+        stats[offset]++;
+        stats[offset + 1] += bootMs;
+    }
+
+    /**
+     * Returns average boot times with and without the archive for a template.
+     */
+    public synchronized String describeBoots(String templateName) {
+        long[] stats = boots.get(templateName);
+        if (stats == null) {
+            return "no boots recorded";
+        }
+        String text = "avg " + average(stats[0], stats[1]) + " with CDS (" + stats[0] + " boots), "
+            + average(stats[2], stats[3]) + " without (" + stats[2] + " boots)";
+        if (stats[0] > 0 && stats[2] > 0) {
+            double with = (double) stats[1] / stats[0];
+            double without = (double) stats[3] / stats[2];
+            text += String.format(", %+.0f%%", (with - without) * 100.0 / without);
+        }
+        return text;
+    }
+
+    /**
+     * Kills a running training server and waits until its job released the port and directory.
+     */
+    public void stop() {
+        trainer.shutdownNow();
+        Process process = trainingProcess;
+        if (process != null) {
+            process.destroyForcibly();
+        }
+        try {
+            // The trainer thread is a daemon, so the cloud would otherwise exit before the cleanup ran.
+            if (!trainer.awaitTermination(TRAINER_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                ConsoleUi.warn("CDS training did not stop in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Removes archives trained for older jars of the same template.
+     */
+    private void deleteStaleArchives(String templateName, Path current) throws IOException {
+        List<Path> archives;
+        try (Stream<Path> stream = Files.list(directories.getCdsDir(templateName))) {
+            archives = stream
+                .filter(path -> path.getFileName().toString().endsWith(".jsa"))
+                .filter(path -> !path.equals(current))
+                .collect(Collectors.toList());
+        }
+        for (Path archive : archives) {
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    /**
+     * Formats an average duration in seconds.
+     */
+    private static String average(long count, long totalMs) {
+        if (count == 0) {
+            return "-";
+        }
+        return String.format("%.1fs", totalMs / (double) count / 1000.0);
+    }
+}
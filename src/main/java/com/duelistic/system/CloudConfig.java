@@ -23,6 +23,45 @@ public class CloudConfig {
     private static final int DEFAULT_VIRTUAL_RAM_LIMIT_MB = 4096;
     private static final boolean DEFAULT_HTTP_API_ENABLED = true;
     private static final int DEFAULT_HTTP_API_PORT = 8085;
+    private static final int DEFAULT_LAUNCH_IO_WORKERS = 4;
+    private static final int DEFAULT_MAX_CONCURRENT_LAUNCHES = 8;
+    private static final long DEFAULT_LAUNCH_READY_TIMEOUT_MS = 120_000;
+    private static final int DEFAULT_PORT_RANGE_START = 25565;
+    private static final int DEFAULT_PORT_RANGE_END = 26564;
+    private static final boolean DEFAULT_RECYCLE_CRASHED_SERVERS = true;
+    private static final int DEFAULT_REAPER_WORKERS = 2;
+    private static final int DEFAULT_REAPER_MAX_DELETES_PER_SECOND = 0;
+    /**
+     * Process manager running servers inside GNU screen sessions.
+     */
+    public static final String PROCESS_MANAGER_SCREEN = "screen";
+    /**
+     * Process manager running servers as direct child processes.
+     */
+    public static final String PROCESS_MANAGER_NATIVE = "native";
+    private static final String DEFAULT_PROCESS_MANAGER = PROCESS_MANAGER_SCREEN;
+    private static final int DEFAULT_CONSOLE_BUFFER_KB = 256;
+    private static final long DEFAULT_STOP_TIMEOUT_MS = 30_000;
+    private static final long DEFAULT_TERMINATE_TIMEOUT_MS = 10_000;
+    private static final int DEFAULT_SHUTDOWN_PARALLELISM = 32;
+    private static final long DEFAULT_SHUTDOWN_DEADLINE_MS = 60_000;
+    private static final long DEFAULT_RESOURCE_SAMPLE_INTERVAL_MS = 5000;
+    private static final boolean DEFAULT_CPU_AFFINITY = false;
+    private static final String DEFAULT_CPU_AFFINITY_CORES = "";
+    private static final int DEFAULT_CORES_PER_SERVER = 1;
+    private static final long DEFAULT_HEARTBEAT_INTERVAL_MS = 10_000;
+    private static final int DEFAULT_HANG_MISSED_HEARTBEATS = 3;
+    private static final boolean DEFAULT_HANG_THREAD_DUMPS = true;
+    private static final long DEFAULT_RECONCILE_INTERVAL_MS = 60_000;
+    /**
+     * Orphan policy adopting, killing or deleting orphaned servers.
+     */
+    public static final String ORPHAN_POLICY_FIX = "fix";
+    /**
+     * Orphan policy only reporting orphaned servers.
+     */
+    public static final String ORPHAN_POLICY_REPORT = "report";
+    private static final String DEFAULT_ORPHAN_POLICY = ORPHAN_POLICY_FIX;
 
     private final long autoRenewIntervalMs;
     private final long templateSyncIntervalMs;
@@ -35,6 +74,29 @@ public class CloudConfig {
     private final int virtualRamLimitMb;
     private final boolean httpApiEnabled;
     private final int httpApiPort;
+    private final int launchIoWorkers;
+    private final int maxConcurrentLaunches;
+    private final long launchReadyTimeoutMs;
+    private final int portRangeStart;
+    private final int portRangeEnd;
+    private final boolean recycleCrashedServers;
+    private final int reaperWorkers;
+    private final int reaperMaxDeletesPerSecond;
+    private final String processManager;
+    private final int consoleBufferKb;
+    private final long stopTimeoutMs;
+    private final long terminateTimeoutMs;
+    private final int shutdownParallelism;
+    private final long shutdownDeadlineMs;
+    private final long resourceSampleIntervalMs;
+    private final boolean cpuAffinity;
+    private final String cpuAffinityCores;
+    private final int coresPerServer;
+    private final long heartbeatIntervalMs;
+    private final int hangMissedHeartbeats;
+    private final boolean hangThreadDumps;
+    private final long reconcileIntervalMs;
+    private final String orphanPolicy;
 
     private CloudConfig(long autoRenewIntervalMs,
                         long templateSyncIntervalMs,
@@ -46,7 +108,30 @@ public class CloudConfig {
                         boolean basedOnOverallSystemMemory,
                         int virtualRamLimitMb,
                         boolean httpApiEnabled,
-                        int httpApiPort) {
+                        int httpApiPort,
+                        int launchIoWorkers,
+                        int maxConcurrentLaunches,
+                        long launchReadyTimeoutMs,
+                        int portRangeStart,
+                        int portRangeEnd,
+                        boolean recycleCrashedServers,
+                        int reaperWorkers,
+                        int reaperMaxDeletesPerSecond,
+                        String processManager,
+                        int consoleBufferKb,
+                        long stopTimeoutMs,
+                        long terminateTimeoutMs,
+                        int shutdownParallelism,
+                        long shutdownDeadlineMs,
+                        long resourceSampleIntervalMs,
+                        boolean cpuAffinity,
+                        String cpuAffinityCores,
+                        int coresPerServer,
+                        long heartbeatIntervalMs,
+                        int hangMissedHeartbeats,
+                        boolean hangThreadDumps,
+                        long reconcileIntervalMs,
+                        String orphanPolicy) {
         this.autoRenewIntervalMs = autoRenewIntervalMs;
         this.templateSyncIntervalMs = templateSyncIntervalMs;
         this.banCleanupIntervalMs = banCleanupIntervalMs;
@@ -58,6 +143,29 @@ public class CloudConfig {
         this.virtualRamLimitMb = virtualRamLimitMb;
         this.httpApiEnabled = httpApiEnabled;
         this.httpApiPort = httpApiPort;
+        this.launchIoWorkers = launchIoWorkers;
+        this.maxConcurrentLaunches = maxConcurrentLaunches;
+        this.launchReadyTimeoutMs = launchReadyTimeoutMs;
+        this.portRangeStart = portRangeStart;
+        this.portRangeEnd = portRangeEnd;
+        this.recycleCrashedServers = recycleCrashedServers;
+        this.reaperWorkers = reaperWorkers;
+        this.reaperMaxDeletesPerSecond = reaperMaxDeletesPerSecond;
+        this.processManager = processManager;
+        this.consoleBufferKb = consoleBufferKb;
+        this.stopTimeoutMs = stopTimeoutMs;
+        this.terminateTimeoutMs = terminateTimeoutMs;
+        this.shutdownParallelism = shutdownParallelism;
+        this.shutdownDeadlineMs = shutdownDeadlineMs;
+        this.resourceSampleIntervalMs = resourceSampleIntervalMs;
+        this.cpuAffinity = cpuAffinity;
+        this.cpuAffinityCores = cpuAffinityCores;
+        this.coresPerServer = coresPerServer;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.hangMissedHeartbeats = hangMissedHeartbeats;
+        this.hangThreadDumps = hangThreadDumps;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.orphanPolicy = orphanPolicy;
     }
 
     /**
@@ -84,6 +192,29 @@ public class CloudConfig {
             int virtualRamLimitMb = readInt(data, "virtualRamLimitMb", DEFAULT_VIRTUAL_RAM_LIMIT_MB);
             boolean httpApiEnabled = readBoolean(data, "httpApiEnabled", DEFAULT_HTTP_API_ENABLED);
             int httpApiPort = readInt(data, "httpApiPort", DEFAULT_HTTP_API_PORT);
+            int launchIoWorkers = readInt(data, "launchIoWorkers", DEFAULT_LAUNCH_IO_WORKERS);
+            int maxConcurrentLaunches = readInt(data, "maxConcurrentLaunches", DEFAULT_MAX_CONCURRENT_LAUNCHES);
+            long launchReadyTimeoutMs = readLong(data, "launchReadyTimeoutMs", DEFAULT_LAUNCH_READY_TIMEOUT_MS);
+            int portRangeStart = readInt(data, "portRangeStart", DEFAULT_PORT_RANGE_START);
+            int portRangeEnd = readInt(data, "portRangeEnd", DEFAULT_PORT_RANGE_END);
+            boolean recycleCrashedServers = readBoolean(data, "recycleCrashedServers", DEFAULT_RECYCLE_CRASHED_SERVERS);
+            int reaperWorkers = readInt(data, "reaperWorkers", DEFAULT_REAPER_WORKERS);
+            int reaperMaxDeletesPerSecond = readInt(data, "reaperMaxDeletesPerSecond", DEFAULT_REAPER_MAX_DELETES_PER_SECOND);
+            String processManager = readProcessManager(data, "processManager", DEFAULT_PROCESS_MANAGER);
+            int consoleBufferKb = readInt(data, "consoleBufferKb", DEFAULT_CONSOLE_BUFFER_KB);
+            long stopTimeoutMs = readLong(data, "stopTimeoutMs", DEFAULT_STOP_TIMEOUT_MS);
+            long terminateTimeoutMs = readLong(data, "terminateTimeoutMs", DEFAULT_TERMINATE_TIMEOUT_MS);
+            int shutdownParallelism = readInt(data, "shutdownParallelism", DEFAULT_SHUTDOWN_PARALLELISM);
+            long shutdownDeadlineMs = readLong(data, "shutdownDeadlineMs", DEFAULT_SHUTDOWN_DEADLINE_MS);
+            long resourceSampleIntervalMs = readLong(data, "resourceSampleIntervalMs", DEFAULT_RESOURCE_SAMPLE_INTERVAL_MS);
+            boolean cpuAffinity = readBoolean(data, "cpuAffinity", DEFAULT_CPU_AFFINITY);
+            String cpuAffinityCores = readString(data, "cpuAffinityCores", DEFAULT_CPU_AFFINITY_CORES);
+            int coresPerServer = readInt(data, "coresPerServer", DEFAULT_CORES_PER_SERVER);
+            long heartbeatIntervalMs = readLong(data, "heartbeatIntervalMs", DEFAULT_HEARTBEAT_INTERVAL_MS);
+            int hangMissedHeartbeats = readInt(data, "hangMissedHeartbeats", DEFAULT_HANG_MISSED_HEARTBEATS);
+            boolean hangThreadDumps = readBoolean(data, "hangThreadDumps", DEFAULT_HANG_THREAD_DUMPS);
+            long reconcileIntervalMs = readLong(data, "reconcileIntervalMs", DEFAULT_RECONCILE_INTERVAL_MS);
+            String orphanPolicy = readOrphanPolicy(data, "orphanPolicy", DEFAULT_ORPHAN_POLICY);
             return new CloudConfig(normalizeInterval(autoRenewIntervalMs, DEFAULT_AUTO_RENEW_INTERVAL_MS),
                 normalizeInterval(templateSyncIntervalMs, DEFAULT_TEMPLATE_SYNC_INTERVAL_MS),
                 normalizeInterval(banCleanupIntervalMs, DEFAULT_BAN_CLEANUP_INTERVAL_MS),
@@ -94,7 +225,30 @@ public class CloudConfig {
                 basedOnOverallSystemMemory,
                 virtualRamLimitMb,
                 httpApiEnabled,
-                httpApiPort);
+                httpApiPort,
+                normalizeCount(launchIoWorkers, DEFAULT_LAUNCH_IO_WORKERS),
+                normalizeCount(maxConcurrentLaunches, DEFAULT_MAX_CONCURRENT_LAUNCHES),
+                normalizeInterval(launchReadyTimeoutMs, DEFAULT_LAUNCH_READY_TIMEOUT_MS),
+                normalizeCount(portRangeStart, DEFAULT_PORT_RANGE_START),
+                normalizeCount(portRangeEnd, DEFAULT_PORT_RANGE_END),
+                recycleCrashedServers,
+                normalizeCount(reaperWorkers, DEFAULT_REAPER_WORKERS),
+                reaperMaxDeletesPerSecond,
+                processManager,
+                normalizeCount(consoleBufferKb, DEFAULT_CONSOLE_BUFFER_KB),
+                normalizeInterval(stopTimeoutMs, DEFAULT_STOP_TIMEOUT_MS),
+                normalizeInterval(terminateTimeoutMs, DEFAULT_TERMINATE_TIMEOUT_MS),
+                normalizeCount(shutdownParallelism, DEFAULT_SHUTDOWN_PARALLELISM),
+                normalizeInterval(shutdownDeadlineMs, DEFAULT_SHUTDOWN_DEADLINE_MS),
+                normalizeInterval(resourceSampleIntervalMs, DEFAULT_RESOURCE_SAMPLE_INTERVAL_MS),
+                cpuAffinity,
+                cpuAffinityCores,
+                normalizeCount(coresPerServer, DEFAULT_CORES_PER_SERVER),
+                normalizeInterval(heartbeatIntervalMs, DEFAULT_HEARTBEAT_INTERVAL_MS),
+                Math.max(0, hangMissedHeartbeats),
+                hangThreadDumps,
+                Math.max(0, reconcileIntervalMs),
+                orphanPolicy);
         } catch (IOException e) {
             return defaults();
         }
@@ -122,6 +276,34 @@ public class CloudConfig {
             builder.append("virtualRamLimitMb: ").append(DEFAULT_VIRTUAL_RAM_LIMIT_MB).append("\n");
             builder.append("httpApiEnabled: ").append(DEFAULT_HTTP_API_ENABLED).append("\n");
             builder.append("httpApiPort: ").append(DEFAULT_HTTP_API_PORT).append("\n");
+            builder.append("launchIoWorkers: ").append(DEFAULT_LAUNCH_IO_WORKERS).append("\n");
+            builder.append("maxConcurrentLaunches: ").append(DEFAULT_MAX_CONCURRENT_LAUNCHES).append("\n");
+            builder.append("launchReadyTimeoutMs: ").append(DEFAULT_LAUNCH_READY_TIMEOUT_MS).append("\n");
+            builder.append("portRangeStart: ").append(DEFAULT_PORT_RANGE_START).append("\n");
+            builder.append("portRangeEnd: ").append(DEFAULT_PORT_RANGE_END).append("\n");
+            builder.append("recycleCrashedServers: ").append(DEFAULT_RECYCLE_CRASHED_SERVERS).append("\n");
+            builder.append("reaperWorkers: ").append(DEFAULT_REAPER_WORKERS).append("\n");
+            builder.append("reaperMaxDeletesPerSecond: ").append(DEFAULT_REAPER_MAX_DELETES_PER_SECOND).append("\n");
+            builder.append("# screen or native\n");
+            builder.append("processManager: ").append(DEFAULT_PROCESS_MANAGER).append("\n");
+            builder.append("consoleBufferKb: ").append(DEFAULT_CONSOLE_BUFFER_KB).append("\n");
+            builder.append("stopTimeoutMs: ").append(DEFAULT_STOP_TIMEOUT_MS).append("\n");
+            builder.append("terminateTimeoutMs: ").append(DEFAULT_TERMINATE_TIMEOUT_MS).append("\n");
+            builder.append("shutdownParallelism: ").append(DEFAULT_SHUTDOWN_PARALLELISM).append("\n");
+            builder.append("shutdownDeadlineMs: ").append(DEFAULT_SHUTDOWN_DEADLINE_MS).append("\n");
+            builder.append("resourceSampleIntervalMs: ").append(DEFAULT_RESOURCE_SAMPLE_INTERVAL_MS).append("\n");
+            builder.append("# pin servers to cores with taskset; empty cpuAffinityCores uses all cores, e.g. 2-15\n");
+            builder.append("cpuAffinity: ").append(DEFAULT_CPU_AFFINITY).append("\n");
+            builder.append("cpuAffinityCores: \"").append(DEFAULT_CPU_AFFINITY_CORES).append("\"\n");
+            builder.append("coresPerServer: ").append(DEFAULT_CORES_PER_SERVER).append("\n");
+            builder.append("# servers with an open port that miss this many plugin heartbeats are restarted, 0 disables\n");
+            builder.append("heartbeatIntervalMs: ").append(DEFAULT_HEARTBEAT_INTERVAL_MS).append("\n");
+            builder.append("hangMissedHeartbeats: ").append(DEFAULT_HANG_MISSED_HEARTBEATS).append("\n");
+            builder.append("hangThreadDumps: ").append(DEFAULT_HANG_THREAD_DUMPS).append("\n");
+            builder.append("# sweep for orphaned processes, directories and registry entries, 0 disables\n");
+            builder.append("reconcileIntervalMs: ").append(DEFAULT_RECONCILE_INTERVAL_MS).append("\n");
+            builder.append("# fix or report\n");
+            builder.append("orphanPolicy: ").append(DEFAULT_ORPHAN_POLICY).append("\n");
             Files.write(configFile, builder.toString().getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
             // If default config can't be written, stay silent and continue.
@@ -139,7 +321,30 @@ public class CloudConfig {
             DEFAULT_BASED_ON_OVERALL_SYSTEM_MEMORY,
             DEFAULT_VIRTUAL_RAM_LIMIT_MB,
             DEFAULT_HTTP_API_ENABLED,
-            DEFAULT_HTTP_API_PORT);
+            DEFAULT_HTTP_API_PORT,
+            DEFAULT_LAUNCH_IO_WORKERS,
+            DEFAULT_MAX_CONCURRENT_LAUNCHES,
+            DEFAULT_LAUNCH_READY_TIMEOUT_MS,
+            DEFAULT_PORT_RANGE_START,
+            DEFAULT_PORT_RANGE_END,
+            DEFAULT_RECYCLE_CRASHED_SERVERS,
+            DEFAULT_REAPER_WORKERS,
+            DEFAULT_REAPER_MAX_DELETES_PER_SECOND,
+            DEFAULT_PROCESS_MANAGER,
+            DEFAULT_CONSOLE_BUFFER_KB,
+            DEFAULT_STOP_TIMEOUT_MS,
+            DEFAULT_TERMINATE_TIMEOUT_MS,
+            DEFAULT_SHUTDOWN_PARALLELISM,
+            DEFAULT_SHUTDOWN_DEADLINE_MS,
+            DEFAULT_RESOURCE_SAMPLE_INTERVAL_MS,
+            DEFAULT_CPU_AFFINITY,
+            DEFAULT_CPU_AFFINITY_CORES,
+            DEFAULT_CORES_PER_SERVER,
+            DEFAULT_HEARTBEAT_INTERVAL_MS,
+            DEFAULT_HANG_MISSED_HEARTBEATS,
+            DEFAULT_HANG_THREAD_DUMPS,
+            DEFAULT_RECONCILE_INTERVAL_MS,
+            DEFAULT_ORPHAN_POLICY);
     }
 
     private static long normalizeInterval(long value, long fallback) {
@@ -149,6 +354,13 @@ public class CloudConfig {
         return value;
     }
 
+    private static int normalizeCount(int value, int fallback) {
+        if (value <= 0) {
+            return fallback;
+        }
+        return value;
+    }
+
     private static int readInt(Map<String, Object> data, String key, int fallback) {
         Object value = data.get(key);
         if (value == null) {
@@ -179,6 +391,38 @@ public class CloudConfig {
         }
     }
 
+    private static String readProcessManager(Map<String, Object> data, String key, String fallback) {
+        Object value = data.get(key);
+        if (value == null) {
+            return fallback;
+        }
+        String text = value.toString().trim().toLowerCase();
+        if (PROCESS_MANAGER_SCREEN.equals(text) || PROCESS_MANAGER_NATIVE.equals(text)) {
+            return text;
+        }
+        return fallback;
+    }
+
+    private static String readOrphanPolicy(Map<String, Object> data, String key, String fallback) {
+        Object value = data.get(key);
+        if (value == null) {
+            return fallback;
+        }
+        String text = value.toString().trim().toLowerCase();
+        if (ORPHAN_POLICY_FIX.equals(text) || ORPHAN_POLICY_REPORT.equals(text)) {
+            return text;
+        }
+        return fallback;
+    }
+
+    private static String readString(Map<String, Object> data, String key, String fallback) {
+        Object value = data.get(key);
+        if (value == null) {
+            return fallback;
+        }
+        return value.toString().trim();
+    }
+
     private static boolean readBoolean(Map<String, Object> data, String key, boolean fallback) {
         Object value = data.get(key);
         if (value == null) {
@@ -269,4 +513,165 @@ public class CloudConfig {
     public int getHttpApiPort() {
         return httpApiPort;
     }
+
+    /**
+     * Returns the number of I/O workers used to provision and patch servers.
+     */
+    public int getLaunchIoWorkers() {
+        return launchIoWorkers;
+    }
+
+    /**
+     * Returns how many launches may be in flight before spawning at once.
+     */
+    public int getMaxConcurrentLaunches() {
+        return maxConcurrentLaunches;
+    }
+
+    /**
+     * Returns how long a launched server may take to accept connections.
+     */
+    public long getLaunchReadyTimeoutMs() {
+        return launchReadyTimeoutMs;
+    }
+
+    /**
+     * Returns the first port of the global server port range.
+     */
+    public int getPortRangeStart() {
+        return portRangeStart;
+    }
+
+    /**
+     * Returns the last port of the global server port range.
+     */
+    public int getPortRangeEnd() {
+        return portRangeEnd;
+    }
+
+    /**
+     * Returns whether crashed servers are relaunched in place instead of recopied.
+     */
+    public boolean getRecycleCrashedServers() {
+        return recycleCrashedServers;
+    }
+
+    /**
+     * Returns how many threads delete old server directories in the background.
+     */
+    public int getReaperWorkers() {
+        return reaperWorkers;
+    }
+
+    /**
+     * Returns the background delete budget in files per second, 0 for unlimited.
+     */
+    public int getReaperMaxDeletesPerSecond() {
+        return reaperMaxDeletesPerSecond;
+    }
+
+    /**
+     * Returns which process manager runs servers, {@value #PROCESS_MANAGER_SCREEN} or {@value #PROCESS_MANAGER_NATIVE}.
+     */
+    public String getProcessManager() {
+        return processManager;
+    }
+
+    /**
+     * Returns how much console output is kept in memory per server, in KiB.
+     */
+    public int getConsoleBufferKb() {
+        return consoleBufferKb;
+    }
+
+    /**
+     * Returns how long a server may take to save and exit after the stop command.
+     */
+    public long getStopTimeoutMs() {
+        return stopTimeoutMs;
+    }
+
+    /**
+     * Returns how long a server may take to exit after SIGTERM before it is killed.
+     */
+    public long getTerminateTimeoutMs() {
+        return terminateTimeoutMs;
+    }
+
+    /**
+     * Returns how many servers are stopped at the same time when the cloud shuts down.
+     */
+    public int getShutdownParallelism() {
+        return shutdownParallelism;
+    }
+
+    /**
+     * Returns the time after which servers still running at cloud shutdown are killed.
+     */
+    public long getShutdownDeadlineMs() {
+        return shutdownDeadlineMs;
+    }
+
+    /**
+     * Returns the interval between per-server CPU and memory samples.
+     */
+    public long getResourceSampleIntervalMs() {
+        return resourceSampleIntervalMs;
+    }
+
+    /**
+     * Returns true if servers are pinned to CPU cores.
+     */
+    public boolean isCpuAffinity() {
+        return cpuAffinity;
+    }
+
+    /**
+     * Returns the cores servers may be pinned to, or an empty string for all cores.
+     */
+    public String getCpuAffinityCores() {
+        return cpuAffinityCores;
+    }
+
+    /**
+     * Returns how many cores each pinned server gets.
+     */
+    public int getCoresPerServer() {
+        return coresPerServer;
+    }
+
+    /**
+     * Returns the interval in which server plugins send heartbeats.
+     */
+    public long getHeartbeatIntervalMs() {
+        return heartbeatIntervalMs;
+    }
+
+    /**
+     * Returns how many heartbeats a server may miss before it counts as hung, 0 if disabled.
+     */
+    public int getHangMissedHeartbeats() {
+        return hangMissedHeartbeats;
+    }
+
+    /**
+     * Returns true if a thread dump is archived before a hung server is restarted.
+     */
+    public boolean isHangThreadDumps() {
+        return hangThreadDumps;
+    }
+
+    /**
+     * Returns the time between two reconciliation sweeps, 0 if only run on demand.
+     */
+    public long getReconcileIntervalMs() {
+        return reconcileIntervalMs;
+    }
+
+    /**
+     * Returns what happens to orphans, {@value #ORPHAN_POLICY_FIX} or {@value #ORPHAN_POLICY_REPORT}.
+     */
+    public String getOrphanPolicy() {
+        return orphanPolicy;
+    }
 }
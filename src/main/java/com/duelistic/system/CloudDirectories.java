@@ -2,20 +2,35 @@ package com.duelistic.system;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.duelistic.ui.ConsoleUi;
+
 /**
  * Manages filesystem paths and operations for templates and tmp servers.
  */
 public class CloudDirectories {
+    private static final String SERVER_MANIFEST_FILE = ".template-manifest";
     private final Path baseDir;
+    private final Map<String, TemplateManifest> manifests = new ConcurrentHashMap<>();
+    private final Map<String, Object> manifestLocks = new ConcurrentHashMap<>();
+    private volatile DirectoryReaper reaper;
 
     /**
      * Creates a directory helper using the default base location.
@@ -63,16 +78,233 @@ public class CloudDirectories {
     }
 
     /**
-     * Copies a template into a tmp server directory.
+     * Provisions a tmp server directory from a compiled launch spec.
+     *
+     * <p>A new directory receives every template file. An existing directory is
+     * synced incrementally against the template manifest: only missing or differing
+     * files are placed and files removed from the template are deleted. Files matching
+     * the template's {@code linkInclude} rules (and none of its {@code linkExclude}
+     * rules) are hard-linked, everything else is copied. The same rules apply to files
+     * inherited from a parent template, which are linked from the parent's directory, so
+     * a server writing a file in place never changes a template or a sibling server.</p>
+     *
+     * <p>The compiled launch spec is used as is, so template configs are not reread.</p>
+     *
+     * @return timing and byte counts of the provisioning run.
+     */
+    public ProvisionResult copyTemplateToServer(LaunchSpec spec, String serverName) throws IOException {
+        return copyTemplateToServer(spec, serverName, true);
+    }
+
+    /**
+     * Provisions a tmp server directory from a launch spec, optionally copying every file.
+     *
+     * @param linkFiles false to copy even files matching {@code linkInclude}, e.g. for a throwaway boot.
+     * @return timing and byte counts of the provisioning run.
+     */
+    public ProvisionResult copyTemplateToServer(LaunchSpec spec, String serverName, boolean linkFiles) throws IOException {
+        return copyTemplateToServer(spec.getTemplateName(), spec.getLayers(), serverName, spec.getConfig(), linkFiles);
+    }
+
+    /**
+     * Provisions a tmp server directory from an already resolved layer chain.
      */
-    public void copyTemplateToServer(String templateName, String serverName) throws IOException {
+    private ProvisionResult copyTemplateToServer(String templateName,
+                                                 List<String> layers,
+                                                 String serverName,
+                                                 TemplateConfig config,
+                                                 boolean linkFiles) throws IOException {
         Path sourceDir = getTemplateDir(templateName);
         if (!Files.exists(sourceDir)) {
             throw new IOException("Template not found: " + templateName);
         }
+        long startedAt = System.nanoTime();
+        Map<String, Path> sources = resolveTemplateSources(layers);
+        TemplateManifest manifest = buildManifest(templateName, layers, sources);
+        long manifestMs = (System.nanoTime() - startedAt) / 1_000_000L;
         Path targetDir = getTmpServerDir(serverName);
-        // Copy template contents into a tmp server directory.
-        copyDirectoryContents(sourceDir, targetDir);
+        Placement placement = new Placement(sourceDir.getFileSystem(), config, linkFiles);
+        List<String> paths = new ArrayList<>();
+        int filesRemoved = 0;
+        if (Files.isDirectory(targetDir)) {
+            // Reused directory: only touch what differs from the template.
+            ManifestDiff diff = diffServer(manifest, targetDir, Collections.<String>emptyList());
+            for (String path : diff.getRemoved()) {
+                deleteDirectory(targetDir.resolve(path));
+                filesRemoved++;
+            }
+            paths.addAll(diff.getAdded());
+            paths.addAll(diff.getChanged());
+            Collections.sort(paths);
+        } else {
+            Files.createDirectories(targetDir);
+            for (TemplateManifest.Entry entry : manifest.getEntries()) {
+                paths.add(entry.getPath());
+            }
+        }
+        for (String path : paths) {
+            placement.place(sources.get(path), targetDir.resolve(path), manifest.get(path));
+        }
+        manifest.writeTo(targetDir.resolve(SERVER_MANIFEST_FILE));
+        long durationMs = (System.nanoTime() - startedAt) / 1_000_000L;
+        return new ProvisionResult(serverName, durationMs,
+            placement.filesCopied, placement.bytesCopied,
+            placement.filesLinked, placement.bytesLinked,
+            filesRemoved, manifestMs);
+    }
+
+    /**
+     * Returns the manifest of a template, rehashing only files that changed since the last call.
+     */
+    public TemplateManifest getTemplateManifest(String templateName) throws IOException {
+        List<String> layers = resolveLayers(templateName);
+        return buildManifest(templateName, layers, resolveTemplateSources(layers));
+    }
+
+    /**
+     * Returns the manifest built by the last provisioning run of a template, or null if none ran yet.
+     */
+    public TemplateManifest getLastManifest(String templateName) {
+        return manifests.get(templateName);
+    }
+
+    /**
+     * Rebuilds and persists the manifest of a template from its resolved layer sources.
+     */
+    private TemplateManifest buildManifest(String templateName, List<String> layers, Map<String, Path> sources) throws IOException {
+        // Base layers are hashed once in their own manifest and shared by all children.
+        TemplateManifest base = TemplateManifest.empty();
+        if (layers.size() > 1) {
+            List<String> baseLayers = layers.subList(0, layers.size() - 1);
+            base = buildManifest(baseLayers.get(baseLayers.size() - 1), baseLayers, resolveTemplateSources(baseLayers));
+        }
+        Object lock = manifestLocks.computeIfAbsent(templateName, key -> new Object());
+        synchronized (lock) {
+            Path manifestFile = getManifestFile(templateName);
+            TemplateManifest previous = manifests.get(templateName);
+            if (previous == null) {
+                // Lazily pick up hashes persisted by a previous run.
+                previous = TemplateManifest.readFrom(manifestFile);
+            }
+            TemplateManifest current = TemplateManifest.build(sources, previous, base);
+            if (!current.sameAs(previous) || !Files.exists(manifestFile)) {
+                current.writeTo(manifestFile);
+            }
+            manifests.put(templateName, current);
+            return current;
+        }
+    }
+
+    /**
+     * Returns the inheritance chain of a template, base layer first.
+     */
+    public List<String> resolveLayers(String templateName) throws IOException {
+        List<String> layers = new ArrayList<>();
+        String current = templateName;
+        while (current != null) {
+            if (layers.contains(current)) {
+                throw new IOException("Template inheritance cycle: " + String.join(" -> ", layers) + " -> " + current);
+            }
+            if (!templateExists(current)) {
+                throw new IOException("Template not found: " + current);
+            }
+            layers.add(current);
+            current = TemplateConfig.loadFrom(getTemplateConfigFile(current)).getParent();
+        }
+        Collections.reverse(layers);
+        return layers;
+    }
+
+    /**
+     * Compares a tmp server directory with the current template manifest.
+     *
+     * <p>Files the spec renders for each server differ by design and are left out.</p>
+     */
+    public ManifestDiff diffServer(LaunchSpec spec, String serverName) throws IOException {
+        return diffServer(getTemplateManifest(spec.getTemplateName()), getTmpServerDir(serverName), spec.getPatchFiles());
+    }
+
+    /**
+     * Computes which template files are missing, differ or were removed in a server directory.
+     *
+     * @param skipped paths relative to the server directory that are not compared.
+     */
+    private ManifestDiff diffServer(TemplateManifest manifest, Path serverDir, List<String> skipped) throws IOException {
+        ManifestDiff diff = new ManifestDiff();
+        for (TemplateManifest.Entry entry : manifest.getEntries()) {
+            if (skipped.contains(entry.getPath())) {
+                continue;
+            }
+            Path target = serverDir.resolve(entry.getPath());
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(target, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                diff.addAdded(entry.getPath());
+                continue;
+            }
+            // Copies keep the template mtime, so size and mtime identify untouched files.
+            if (entry.matches(attributes)) {
+                continue;
+            }
+            if (entry.isDirectory() || !attributes.isRegularFile() || attributes.size() != entry.getSize()) {
+                diff.addChanged(entry.getPath());
+                continue;
+            }
+            // Same size but a different mtime: compare content before copying.
+            if (!TemplateManifest.hash(target).equals(entry.getHash())) {
+                diff.addChanged(entry.getPath());
+            }
+        }
+        TemplateManifest snapshot = TemplateManifest.readFrom(serverDir.resolve(SERVER_MANIFEST_FILE));
+        for (TemplateManifest.Entry entry : snapshot.getEntries()) {
+            if (manifest.get(entry.getPath()) == null && Files.exists(serverDir.resolve(entry.getPath()))) {
+                diff.addRemoved(entry.getPath());
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Maps every file and directory of a template and its parents to its relative path.
+     *
+     * <p>Layers are applied base first, so files of a child template override inherited ones.</p>
+     */
+    private Map<String, Path> resolveTemplateSources(List<String> layers) throws IOException {
+        Map<String, Path> sources = new TreeMap<>();
+        for (String layer : layers) {
+            Path layerDir = getTemplateDir(layer);
+            try (Stream<Path> stream = Files.walk(layerDir)) {
+                for (Path path : (Iterable<Path>) stream::iterator) {
+                    if (path.equals(layerDir)) {
+                        continue;
+                    }
+                    sources.put(layerDir.relativize(path).toString().replace('\\', '/'), path);
+                }
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Returns templates that directly inherit from the given template.
+     */
+    public List<String> listChildTemplates(String templateName) throws IOException {
+        List<String> children = new ArrayList<>();
+        for (String template : listTemplates()) {
+            Path configFile = getTemplateConfigFile(template);
+            if (!Files.exists(configFile)) {
+                continue;
+            }
+            try {
+                if (templateName.equals(TemplateConfig.loadFrom(configFile).getParent())) {
+                    children.add(template);
+                }
+            } catch (IOException e) {
+                // Broken configs are reported when the template is launched.
+            }
+        }
+        return children;
     }
 
     /**
@@ -86,6 +318,7 @@ public class CloudDirectories {
             return stream
                 .filter(Files::isDirectory)
                 .map(path -> path.getFileName().toString())
+                .filter(name -> !name.startsWith("."))
                 .sorted()
                 .collect(Collectors.toList());
         }
@@ -97,6 +330,8 @@ public class CloudDirectories {
     public void deleteTemplate(String name) throws IOException {
         // Remove a template directory recursively.
         deleteDirectory(getTemplatesDir().resolve(name));
+        manifests.remove(name);
+        Files.deleteIfExists(getManifestFile(name));
     }
 
     /**
@@ -156,6 +391,41 @@ public class CloudDirectories {
         return baseDir.resolve("config.yml");
     }
 
+    /**
+     * Returns the directory holding persisted template manifests.
+     */
+    public Path getManifestsDir() {
+        return baseDir.resolve("manifests");
+    }
+
+    /**
+     * Returns the persisted manifest file of a template.
+     */
+    public Path getManifestFile(String templateName) {
+        return getManifestsDir().resolve(templateName + ".manifest");
+    }
+
+    /**
+     * Returns the directory holding AppCDS archives of a template.
+     */
+    public Path getCdsDir(String templateName) {
+        return baseDir.resolve("cds").resolve(templateName);
+    }
+
+    /**
+     * Returns the directory keeping logs and thread dumps of failed servers.
+     */
+    public Path getLogArchiveDir() {
+        return baseDir.resolve("logs");
+    }
+
+    /**
+     * Returns the journal of running servers that survives a cloud restart.
+     */
+    public Path getServerStateFile() {
+        return baseDir.resolve("servers.state");
+    }
+
     /**
      * Returns the tmp directory path.
      */
@@ -163,6 +433,39 @@ public class CloudDirectories {
         return baseDir.resolve("tmp");
     }
 
+    /**
+     * Returns the trash area inside tmp where directories wait for background deletion.
+     */
+    public Path getTrashDir() {
+        return getTmpDir().resolve(".trash");
+    }
+
+    /**
+     * Starts background deletion of tmp directories and resumes deletes left from a previous run.
+     *
+     * @param workers threads deleting files in parallel.
+     * @param maxDeletesPerSecond upper bound on file deletes per second, 0 for unlimited.
+     */
+    public void startReaper(int workers, int maxDeletesPerSecond) throws IOException {
+        DirectoryReaper started = new DirectoryReaper(getTrashDir(), workers, maxDeletesPerSecond);
+        reaper = started;
+        int resumed = started.resume();
+        if (resumed > 0) {
+            ConsoleUi.info("Resuming deletion of " + resumed + " old server director" + (resumed == 1 ? "y." : "ies."));
+        }
+    }
+
+    /**
+     * Waits for background deletes to finish, then stops the reaper; remaining trash is resumed on the next start.
+     *
+     * @return number of directories that were not fully deleted.
+     */
+    public int stopReaper(long timeoutMs) {
+        DirectoryReaper current = reaper;
+        reaper = null;
+        return current == null ? 0 : current.stop(timeoutMs);
+    }
+
     /**
      * Returns the tmp directory path for a specific server.
      */
@@ -189,23 +492,40 @@ public class CloudDirectories {
             return stream
                 .filter(Files::isDirectory)
                 .map(path -> path.getFileName().toString())
+                .filter(name -> !name.startsWith("."))
                 .sorted()
                 .collect(Collectors.toList());
         }
     }
 
     /**
-     * Deletes the entire tmp directory and its contents.
+     * Deletes all tmp server directories.
+     *
+     * <p>With a running reaper the directories are only moved to the trash area and
+     * deleted in the background.</p>
      */
     public void deleteTmp() throws IOException {
-        // Remove all tmp servers.
-        deleteDirectory(getTmpDir());
+        DirectoryReaper current = reaper;
+        if (current == null) {
+            // Remove all tmp servers.
+            deleteDirectory(getTmpDir());
+            return;
+        }
+        for (String name : listTmpServers()) {
+            current.reap(getTmpServerDir(name));
+        }
     }
 
     /**
-     * Deletes a single tmp server directory.
+     * Deletes a single tmp server directory, in the background if the reaper is running.
      */
     public void deleteTmpServer(String name) throws IOException {
+        DirectoryReaper current = reaper;
+        if (current != null) {
+            // The rename frees the name right away; files are deleted later.
+            current.reap(getTmpServerDir(name));
+            return;
+        }
         // Remove a single tmp server.
         deleteDirectory(getTmpServerDir(name));
     }
@@ -233,6 +553,29 @@ public class CloudDirectories {
         }
     }
 
+    /**
+     * Compiles glob patterns into path matchers for relative template paths.
+     */
+    private static List<PathMatcher> compileGlobs(FileSystem fileSystem, List<String> patterns) {
+        List<PathMatcher> matchers = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            matchers.add(fileSystem.getPathMatcher("glob:" + pattern));
+        }
+        return matchers;
+    }
+
+    /**
+     * Returns true if any matcher accepts the relative path.
+     */
+    private static boolean matchesAny(List<PathMatcher> matchers, Path relative) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Computes the default base directory next to the running jar.
      */
@@ -269,4 +612,63 @@ public class CloudDirectories {
             }
         }
     }
+
+    /**
+     * Places template files into a server directory and counts what was copied or linked.
+     */
+    private static class Placement {
+        private final List<PathMatcher> includes;
+        private final List<PathMatcher> excludes;
+        private final FileSystem fileSystem;
+        private boolean linkingSupported;
+        private int filesCopied;
+        private int filesLinked;
+        private long bytesCopied;
+        private long bytesLinked;
+
+        private Placement(FileSystem fileSystem, TemplateConfig config, boolean linkFiles) {
+            this.fileSystem = fileSystem;
+            this.linkingSupported = linkFiles;
+            this.includes = compileGlobs(fileSystem, config.getLinkInclude());
+            this.excludes = compileGlobs(fileSystem, config.getLinkExclude());
+        }
+
+        /**
+         * Hard-links or copies one manifest entry to its destination.
+         */
+        private void place(Path source, Path destination, TemplateManifest.Entry entry) throws IOException {
+            if (entry.isDirectory()) {
+                if (Files.exists(destination) && !Files.isDirectory(destination)) {
+                    Files.delete(destination);
+                }
+                Files.createDirectories(destination);
+                return;
+            }
+            Files.createDirectories(destination.getParent());
+            if (linkingSupported && shouldLink(fileSystem.getPath(entry.getPath()))) {
+                // Immutable file: share the inode with the template instead of copying.
+                try {
+                    Files.deleteIfExists(destination);
+                    Files.createLink(destination, source);
+                    filesLinked++;
+                    bytesLinked += entry.getSize();
+                    return;
+                } catch (IOException | UnsupportedOperationException e) {
+                    // Cross-device or unsupported filesystem, copy everything from now on.
+                    linkingSupported = false;
+                }
+            }
+            // Replacing deletes the destination first, so a previous hard link is never written through.
+            Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            filesCopied++;
+            bytesCopied += entry.getSize();
+        }
+
+        /**
+         * Returns true if a file is linked: it matches an include rule and no exclude rule.
+         */
+        private boolean shouldLink(Path relative) {
+            return matchesAny(includes, relative) && !matchesAny(excludes, relative);
+        }
+    }
 }
@@ -0,0 +1,180 @@
+package com.duelistic.system;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fills per-server placeholders and property values into provisioned config files.
+ *
+ * <p>Each file is streamed once line by line into a sibling file that then replaces
+ * the original, so a hard-linked template file is never written through. Files are
+ * read as ISO-8859-1, which maps every byte to one char and leaves content outside
+ * the ASCII placeholders untouched whatever its real encoding is.</p>
+ */
+public final class ConfigRenderer {
+    /**
+     * Placeholder for the assigned port.
+     */
+    public static final String PORT = "port";
+    /**
+     * Placeholder for the server name.
+     */
+    public static final String NAME = "name";
+    /**
+     * Placeholder for the template name.
+     */
+    public static final String TEMPLATE = "template";
+    /**
+     * Placeholder for the numeric index of the server within its template.
+     */
+    public static final String INDEX = "index";
+    private static final int MAX_PLACEHOLDER_LENGTH = 32;
+
+    private ConfigRenderer() {
+    }
+
+    /**
+     * Returns the placeholder values of one server.
+     */
+    public static Map<String, String> values(String templateName, String serverName, int port) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put(PORT, String.valueOf(port));
+        values.put(NAME, serverName);
+        values.put(TEMPLATE, templateName);
+        String prefix = templateName + "-";
+        values.put(INDEX, serverName.startsWith(prefix) ? serverName.substring(prefix.length()) : "");
+        return values;
+    }
+
+    /**
+     * Renders placeholders of a file in place.
+     */
+    public static void render(Path file, Map<String, String> values) throws IOException {
+        render(file, values, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Renders placeholders of a file in place and sets {@code key=value} properties.
+     *
+     * @param properties property lines to replace, appended at the end if the file lacks them.
+     */
+    public static void render(Path file, Map<String, String> values, Map<String, String> properties) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Set<String> written = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1);
+             BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.ISO_8859_1)) {
+            StringBuilder line = new StringBuilder(128);
+            String lineSeparator = "\n";
+            boolean terminated = true;
+            int c;
+            while (true) {
+                c = reader.read();
+                if (c != -1) {
+                    line.append((char) c);
+                }
+                if (c != '\n' && c != -1) {
+                    continue;
+                }
+                if (line.length() == 0) {
+                    break;
+                }
+                int contentEnd = line.length();
+                terminated = line.charAt(contentEnd - 1) == '\n';
+                if (terminated) {
+                    contentEnd--;
+                    if (contentEnd > 0 && line.charAt(contentEnd - 1) == '\r') {
+                        contentEnd--;
+                    }
+                    lineSeparator = line.substring(contentEnd);
+                }
+                String key = propertyKey(line, contentEnd);
+                if (key != null && properties.containsKey(key)) {
+                    writer.write(key + "=" + properties.get(key));
+                    writer.write(line.substring(contentEnd));
+                    written.add(key);
+                } else {
+                    writeRendered(writer, line, values);
+                }
+                line.setLength(0);
+                if (c == -1) {
+                    break;
+                }
+            }
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                if (written.contains(property.getKey())) {
+                    continue;
+                }
+                if (!terminated) {
+                    writer.write(lineSeparator);
+                    terminated = true;
+                }
+                writer.write(property.getKey() + "=" + property.getValue());
+                writer.write(lineSeparator);
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the key of a {@code key=value} line, or null for comments and other lines.
+     */
+    private static String propertyKey(CharSequence line, int contentEnd) {
+        if (contentEnd == 0 || line.charAt(0) == '#' || line.charAt(0) == '!') {
+            return null;
+        }
+        for (int i = 0; i < contentEnd; i++) {
+            if (line.charAt(i) == '=') {
+                return line.subSequence(0, i).toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes a line with every known {@code {placeholder}} replaced; unknown ones are kept as is.
+     */
+    private static void writeRendered(BufferedWriter writer, CharSequence line, Map<String, String> values) throws IOException {
+        int length = line.length();
+        int copied = 0;
+        int open = indexOf(line, '{', 0);
+        while (open >= 0) {
+            int close = indexOf(line, '}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            if (close - open - 1 > MAX_PLACEHOLDER_LENGTH) {
+                open = indexOf(line, '{', open + 1);
+                continue;
+            }
+            String value = values.get(line.subSequence(open + 1, close).toString());
+            if (value == null) {
+                open = indexOf(line, '{', open + 1);
+                continue;
+            }
+            writer.append(line, copied, open);
+            writer.write(value);
+            copied = close + 1;
+            open = indexOf(line, '{', copied);
+        }
+        writer.append(line, copied, length);
+    }
+
+    private static int indexOf(CharSequence line, char target, int from) {
+        for (int i = from; i < line.length(); i++) {
+            if (line.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,147 @@
+package com.duelistic.system;
+
+/**
+ * Fixed-size ring buffer holding the most recent console output of one server.
+ *
+ * <p>Output is stored as raw bytes in a single array allocated up front, so appending
+ * never allocates and memory stays capped however much a server prints. Positions are
+ * counted in bytes since the buffer was created; once the buffer wrapped, the oldest
+ * bytes are overwritten.</p>
+ */
+public class ConsoleBuffer {
+    private final byte[] data;
+    private long written;
+    private boolean closed;
+
+    /**
+     * Creates a buffer keeping at most the given number of bytes.
+     */
+    public ConsoleBuffer(int capacityBytes) {
+        this.data = new byte[Math.max(1024, capacityBytes)];
+    }
+
+    /**
+     * Appends output bytes and wakes up followers.
+     */
+    public synchronized void append(byte[] source, int offset, int length) {
+        if (length >= data.length) {
+            // Only the tail of an oversized chunk fits.
+            offset += length - data.length;
+            written += length - data.length;
+            length = data.length;
+        }
+        int start = (int) (written % data.length);
+        int first = Math.min(length, data.length - start);
+        System.arraycopy(source, offset, data, start, first);
+        System.arraycopy(source, offset + first, data, 0, length - first);
+        written += length;
+        notifyAll();
+    }
+
+    /**
+     * Marks the output as finished, for example because the process exited.
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Returns the last lines of output, at most the whole buffer.
+     */
+    public synchronized byte[] tail(int lines) {
+        long start = tailStart(lines);
+        return copy(start, (int) (written - start));
+    }
+
+    /**
+     * Returns a follower that first reads the last lines and then output appended later.
+     */
+    public synchronized Follower follow(int lines) {
+        return new Follower(tailStart(lines));
+    }
+
+    /**
+     * Returns the position where the last lines of output begin.
+     */
+    private long tailStart(int lines) {
+        if (lines <= 0) {
+            return written;
+        }
+        long oldest = oldest();
+        int newlines = 0;
+        // A trailing newline ends the last line rather than starting an empty one.
+        long scan = written - 1;
+        if (scan >= oldest && byteAt(scan) == '\n') {
+            scan--;
+        }
+        long start = scan + 1;
+        for (; scan >= oldest; scan--) {
+            if (byteAt(scan) == '\n' && ++newlines == lines) {
+                break;
+            }
+            start = scan;
+        }
+        return start;
+    }
+
+    private long oldest() {
+        return Math.max(0, written - data.length);
+    }
+
+    private byte byteAt(long position) {
+        return data[(int) (position % data.length)];
+    }
+
+    private byte[] copy(long from, int length) {
+        byte[] result = new byte[length];
+        copyInto(from, result, length);
+        return result;
+    }
+
+    private void copyInto(long from, byte[] target, int length) {
+        int start = (int) (from % data.length);
+        int first = Math.min(length, data.length - start);
+        System.arraycopy(data, start, target, 0, first);
+        System.arraycopy(data, 0, target, first, length - first);
+    }
+
+    /**
+     * Reads output of a {@link ConsoleBuffer} in order as it is appended.
+     */
+    public class Follower {
+        private long position;
+
+        private Follower(long position) {
+            this.position = position;
+        }
+
+        /**
+         * Copies new output into the target, waiting up to the timeout for some to arrive.
+         *
+         * <p>Output that was overwritten before this follower read it is skipped.</p>
+         *
+         * @return number of bytes copied, 0 on timeout, or -1 once the buffer is closed and drained.
+         */
+        public int read(byte[] target, long timeoutMs) throws InterruptedException {
+            synchronized (ConsoleBuffer.this) {
+                long deadline = System.currentTimeMillis() + timeoutMs;
+                while (position >= written && !closed) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return 0;
+                    }
+                    ConsoleBuffer.this.wait(remaining);
+                }
+                if (position >= written) {
+                    return -1;
+                }
+                position = Math.max(position, oldest());
+                int length = (int) Math.min(target.length, written - position);
+                copyInto(position, target, length);
+                position += length;
+                return length;
+            }
+        }
+    }
+}
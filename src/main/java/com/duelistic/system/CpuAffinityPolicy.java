@@ -0,0 +1,233 @@
+package com.duelistic.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Pins server processes to CPU cores so the scheduler stops migrating their main threads.
+ *
+ * <p>When a server starts it gets the least loaded cores, where the load of a core is
+ * the measured CPU usage of the servers already pinned to it, split evenly across their
+ * cores. Servers without a sample yet count as one fully busy core, since a booting
+ * server keeps its cores busy. The command is prefixed with {@code taskset}, so pinning
+ * works the same for every process manager.</p>
+ */
+public class CpuAffinityPolicy {
+    private static final String TASKSET = "taskset";
+    private static final double UNSAMPLED_LOAD_PERCENT = 100;
+    private final int[] cores;
+    private final int coresPerServer;
+    private final ProcessResourceSampler sampler;
+    private final boolean enabled;
+    private final Map<String, int[]> assignments = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a policy; it stays disabled if requested so or if taskset is not installed.
+     *
+     * @param coreList cores to place servers on, such as "2-7,10", or empty for all cores the cloud may use.
+     * @param coresPerServer cores each server is pinned to.
+     */
+    public CpuAffinityPolicy(boolean enabled, String coreList, int coresPerServer, ProcessResourceSampler sampler) {
+        this.sampler = sampler;
+        int[] usable = parseCoreList(coreList == null || coreList.trim().isEmpty() ? readAllowedCores() : coreList);
+        if (usable.length == 0) {
+            int count = Runtime.getRuntime().availableProcessors();
+            usable = new int[count];
+            for (int i = 0; i < count; i++) {
+                usable[i] = i;
+            }
+        }
+        this.cores = usable;
+        this.coresPerServer = Math.max(1, Math.min(coresPerServer, usable.length));
+        if (enabled && !isOnPath(TASKSET)) {
+            ConsoleUi.warn("CPU affinity disabled: taskset not found.");
+            enabled = false;
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns true if servers are pinned to cores.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Picks the least loaded cores for a server and prefixes its command to pin it there.
+     *
+     * @return the command to start, unchanged if the policy is disabled.
+     */
+    public List<String> apply(String serverName, List<String> command) {
+        if (!enabled) {
+            return command;
+        }
+        int[] assigned = assign(serverName);
+        List<String> pinned = new ArrayList<>(command.size() + 3);
+        pinned.add(TASKSET);
+        pinned.add("-c");
+        pinned.add(formatCores(assigned));
+        pinned.addAll(command);
+        return pinned;
+    }
+
+    /**
+     * Remembers the cores of a server that was pinned before the cloud restarted.
+     *
+     * @param coreList cores such as "2,3", or null if the server is not pinned.
+     */
+    public void restore(String serverName, String coreList) {
+        int[] assigned = parseCoreList(coreList);
+        if (assigned.length > 0) {
+            assignments.put(serverName, assigned);
+        }
+    }
+
+    /**
+     * Forgets the cores of a server that stopped.
+     */
+    public void release(String serverName) {
+        assignments.remove(serverName);
+    }
+
+    /**
+     * Returns the cores a server is pinned to, such as "2,3", or null if it is not pinned.
+     */
+    public String getAssignment(String serverName) {
+        int[] assigned = assignments.get(serverName);
+        return assigned == null ? null : formatCores(assigned);
+    }
+
+    /**
+     * Returns the cores with the lowest load, fewest pinned servers breaking ties.
+     */
+    synchronized int[] assign(String serverName) {
+        assignments.remove(serverName);
+        double[] load = new double[cores.length];
+        int[] servers = new int[cores.length];
+        for (Map.Entry<String, int[]> entry : assignments.entrySet()) {
+            int[] assigned = entry.getValue();
+            ProcessResourceSampler.Usage usage = sampler == null ? null : sampler.getUsage(entry.getKey());
+            double percent = usage == null || usage.getCpuPercent() < 0 ? UNSAMPLED_LOAD_PERCENT : usage.getCpuPercent();
+            for (int core : assigned) {
+                int index = indexOf(core);
+                if (index >= 0) {
+                    load[index] += percent / assigned.length;
+                    servers[index]++;
+                }
+            }
+        }
+        boolean[] taken = new boolean[cores.length];
+        int[] picked = new int[coresPerServer];
+        for (int i = 0; i < coresPerServer; i++) {
+            int best = -1;
+            for (int index = 0; index < cores.length; index++) {
+                if (taken[index]) {
+                    continue;
+                }
+                if (best < 0 || load[index] < load[best]
+                    || (load[index] == load[best] && servers[index] < servers[best])) {
+                    best = index;
+                }
+            }
+            taken[best] = true;
+            picked[i] = cores[best];
+        }
+        Arrays.sort(picked);
+        assignments.put(serverName, picked);
+        return picked;
+    }
+
+    private int indexOf(int core) {
+        for (int i = 0; i < cores.length; i++) {
+            if (cores[i] == core) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a Linux CPU list such as "0-3,8,10-11" into sorted core ids; invalid parts are skipped.
+     */
+    static int[] parseCoreList(String list) {
+        TreeSet<Integer> parsed = new TreeSet<>();
+        if (list != null) {
+            for (String part : list.split(",")) {
+                String range = part.trim();
+                if (range.isEmpty()) {
+                    continue;
+                }
+                int dash = range.indexOf('-');
+                try {
+                    int first = Integer.parseInt((dash < 0 ? range : range.substring(0, dash)).trim());
+                    int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1).trim());
+                    for (int core = Math.max(0, first); core <= last; core++) {
+                        parsed.add(core);
+                    }
+                } catch (NumberFormatException e) {
+                    ConsoleUi.warn("Ignoring invalid CPU list entry: " + range);
+                }
+            }
+        }
+        int[] result = new int[parsed.size()];
+        int i = 0;
+        for (int core : parsed) {
+            result[i++] = core;
+        }
+        return result;
+    }
+
+    private static String formatCores(int[] assigned) {
+        StringBuilder builder = new StringBuilder();
+        for (int core : assigned) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(core);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the cores the cloud itself may run on, or an empty string if unknown.
+     */
+    private static String readAllowedCores() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("Cpus_allowed_list:")) {
+                    return line.substring("Cpus_allowed_list:".length()).trim();
+                }
+            }
+        } catch (IOException e) {
+            // Not Linux; fall back to the processor count.
+        }
+        return "";
+    }
+
+    private static boolean isOnPath(String executable) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return false;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            Path candidate = Paths.get(dir, executable);
+            if (Files.isExecutable(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
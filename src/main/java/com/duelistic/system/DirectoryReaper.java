@@ -0,0 +1,184 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Deletes directories in the background after moving them into a trash area.
+ *
+ * <p>{@link #reap(Path)} only performs an atomic rename, so the original path (and with it
+ * the server name) is free immediately. Trashed directories are deleted by a small worker
+ * pool, split by top-level entry so large directories are removed in parallel. Deletes can
+ * be rate limited to keep disk I/O available for launching servers. Anything left in the
+ * trash area, for example after a crash, is picked up again by {@link #resume()}.</p>
+ */
+public class DirectoryReaper {
+    private final Path trashDir;
+    private final ExecutorService executor;
+    private final long nanosPerDelete;
+    private final AtomicLong nextDeleteAt = new AtomicLong(System.nanoTime());
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Object drained = new Object();
+
+    /**
+     * Creates a reaper for the given trash directory.
+     *
+     * @param workers threads deleting files in parallel.
+     * @param maxDeletesPerSecond upper bound on file deletes per second, 0 for unlimited.
+     */
+    public DirectoryReaper(Path trashDir, int workers, int maxDeletesPerSecond) {
+        this.trashDir = trashDir;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "reaper-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.nanosPerDelete = maxDeletesPerSecond > 0 ? 1_000_000_000L / maxDeletesPerSecond : 0;
+    }
+
+    /**
+     * Returns the directory holding trashed directories.
+     */
+    public Path getTrashDir() {
+        return trashDir;
+    }
+
+    /**
+     * Moves a directory into the trash area and schedules its deletion.
+     *
+     * @return a future completing once the directory is gone.
+     */
+    public CompletableFuture<Void> reap(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Files.createDirectories(trashDir);
+        Path trashed = trashDir.resolve(dir.getFileName() + "-" + System.nanoTime());
+        Files.move(dir, trashed, StandardCopyOption.ATOMIC_MOVE);
+        return schedule(trashed);
+    }
+
+    /**
+     * Schedules deletion of everything left in the trash area.
+     *
+     * @return number of directories that were resumed.
+     */
+    public int resume() throws IOException {
+        if (!Files.isDirectory(trashDir)) {
+            return 0;
+        }
+        List<Path> leftovers;
+        try (Stream<Path> stream = Files.list(trashDir)) {
+            leftovers = stream.collect(Collectors.toList());
+        }
+        for (Path leftover : leftovers) {
+            schedule(leftover);
+        }
+        return leftovers.size();
+    }
+
+    /**
+     * Waits for queued deletes to finish, then stops the worker pool.
+     *
+     * <p>Deletes still running at the timeout are resumed on the next start.</p>
+     *
+     * @return number of trashed directories that were not fully deleted.
+     */
+    public int stop(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (drained) {
+            long remaining = timeoutMs;
+            while (pending.get() > 0 && remaining > 0) {
+                try {
+                    drained.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+        executor.shutdownNow();
+        return pending.get();
+    }
+
+    /**
+     * Deletes each top-level entry in its own task, then the trashed directory itself.
+     */
+    private CompletableFuture<Void> schedule(Path trashed) throws IOException {
+        pending.incrementAndGet();
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        if (Files.isDirectory(trashed)) {
+            try (Stream<Path> stream = Files.list(trashed)) {
+                for (Path child : (Iterable<Path>) stream::iterator) {
+                    parts.add(CompletableFuture.runAsync(() -> deleteTree(child), executor));
+                }
+            }
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]))
+            .thenRunAsync(() -> deleteTree(trashed), executor)
+            .whenComplete((ignored, error) -> {
+                if (pending.decrementAndGet() == 0) {
+                    synchronized (drained) {
+                        drained.notifyAll();
+                    }
+                }
+                if (error != null) {
+                    ConsoleUi.error("Failed to delete " + trashed.getFileName() + ": " + error.getMessage());
+                }
+            });
+    }
+
+    /**
+     * Deletes a file tree, children first.
+     */
+    private void deleteTree(Path root) {
+        try (Stream<Path> stream = Files.walk(root)) {
+            List<Path> paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                throttle();
+                Files.deleteIfExists(path);
+            }
+        } catch (NoSuchFileException e) {
+            // Already gone.
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Blocks until the next delete fits into the configured budget.
+     */
+    private void throttle() {
+        if (nanosPerDelete == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long slot = nextDeleteAt.getAndUpdate(next -> Math.max(next, now) + nanosPerDelete);
+        long waitNanos = slot - now;
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.duelistic.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory histograms of server launch phase durations, grouped by template and phase.
+ *
+ * <p>Recording is lock-free: every histogram uses power-of-two millisecond buckets,
+ * so percentiles are reported as the upper bound of the bucket they fall into.</p>
+ */
+public class LaunchMetrics {
+    /**
+     * Waiting for a free launch slot in the pipeline.
+     */
+    public static final String PHASE_QUEUE = "queue";
+    /**
+     * Reserving the server port.
+     */
+    public static final String PHASE_PORT = "port";
+    /**
+     * Rebuilding the template manifest before provisioning.
+     */
+    public static final String PHASE_MANIFEST = "manifest";
+    /**
+     * Copying and linking template files into the server directory.
+     */
+    public static final String PHASE_COPY = "copy";
+    /**
+     * Patching server.properties with the assigned port.
+     */
+    public static final String PHASE_PATCH = "patch";
+    /**
+     * Locating the server jar and its CDS archive.
+     */
+    public static final String PHASE_JAR = "jar";
+    /**
+     * Forking the server process.
+     */
+    public static final String PHASE_SPAWN = "spawn";
+    /**
+     * Phase from process spawn until the server reported it finished booting.
+     */
+    public static final String PHASE_BOOT = "boot";
+
+    /**
+     * All phases in launch order.
+     */
+    public static final List<String> PHASES = Collections.unmodifiableList(Arrays.asList(
+        PHASE_QUEUE, PHASE_PORT, PHASE_MANIFEST, PHASE_COPY, PHASE_PATCH, PHASE_JAR, PHASE_SPAWN, PHASE_BOOT));
+
+    private static final int BUCKETS = 24;
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Records one duration for a template and phase.
+     */
+    public void record(String templateName, String phase, long durationMs) {
+        histograms.computeIfAbsent(templateName + "/" + phase, key -> new Histogram(templateName, phase))
+            .record(Math.max(0, durationMs));
+    }
+
+    /**
+     * Returns the histograms of one template, or of all templates if null, in launch phase order.
+     */
+    public List<Histogram> snapshot(String templateName) {
+        List<Histogram> result = new ArrayList<>();
+        for (Histogram histogram : histograms.values()) {
+            if (templateName == null || templateName.equals(histogram.getTemplateName())) {
+                result.add(histogram);
+            }
+        }
+        result.sort((left, right) -> {
+            int byTemplate = left.getTemplateName().compareTo(right.getTemplateName());
+            if (byTemplate != 0) {
+                return byTemplate;
+            }
+            return Integer.compare(PHASES.indexOf(left.getPhase()), PHASES.indexOf(right.getPhase()));
+        });
+        return result;
+    }
+
+    /**
+     * Duration histogram of a single template phase.
+     */
+    public static class Histogram {
+        private final String templateName;
+        private final String phase;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final AtomicLong maxMs = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private Histogram(String templateName, String phase) {
+            this.templateName = templateName;
+            this.phase = phase;
+        }
+
+        private void record(long durationMs) {
+            // Bucket i holds durations up to 2^i ms; the last bucket takes everything above.
+            int bucket = durationMs <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(durationMs - 1);
+            buckets.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+            count.increment();
+            totalMs.add(durationMs);
+            maxMs.accumulateAndGet(durationMs, Math::max);
+        }
+
+        /**
+         * Returns the template name.
+         */
+        public String getTemplateName() {
+            return templateName;
+        }
+
+        /**
+         * Returns the launch phase.
+         */
+        public String getPhase() {
+            return phase;
+        }
+
+        /**
+         * Returns the number of recorded launches.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Returns the mean duration in milliseconds.
+         */
+        public long getAverageMs() {
+            long samples = count.sum();
+            return samples == 0 ? 0 : totalMs.sum() / samples;
+        }
+
+        /**
+         * Returns the longest recorded duration in milliseconds.
+         */
+        public long getMaxMs() {
+            return maxMs.get();
+        }
+
+        /**
+         * Returns an upper bound for the given percentile in milliseconds.
+         *
+         * @param percentile value between 0 and 100.
+         */
+        public long getPercentileMs(double percentile) {
+            long samples = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                samples += counts[i];
+            }
+            if (samples == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(samples * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(1L << i, getMaxMs());
+                }
+            }
+            return getMaxMs();
+        }
+    }
+}
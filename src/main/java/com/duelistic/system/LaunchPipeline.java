@@ -0,0 +1,121 @@
+package com.duelistic.system;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Executors and admission control for the staged server launch pipeline.
+ *
+ * <p>Launches pass through provision, patch, spawn and ready stages. Provision and
+ * patch run on a bounded pool of I/O workers, spawns are serialized on a single
+ * thread, and readiness is polled without blocking a worker. At most
+ * {@code maxConcurrentLaunches} launches are between admission and spawn at once.</p>
+ */
+public class LaunchPipeline {
+    private static final long READY_POLL_INTERVAL_MS = 500;
+    private final ExecutorService ioExecutor;
+    private final ExecutorService spawnExecutor;
+    private final ScheduledExecutorService readyExecutor;
+    private final int maxConcurrentLaunches;
+    private final Deque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private int active;
+
+    /**
+     * Creates a pipeline with the given stage limits.
+     *
+     * @param ioWorkers threads used for provisioning and patching.
+     * @param maxConcurrentLaunches launches allowed between admission and spawn.
+     */
+    public LaunchPipeline(int ioWorkers, int maxConcurrentLaunches) {
+        this.ioExecutor = Executors.newFixedThreadPool(Math.max(1, ioWorkers), daemonThreads("launch-io"));
+        this.spawnExecutor = Executors.newSingleThreadExecutor(daemonThreads("launch-spawn"));
+        this.readyExecutor = Executors.newSingleThreadScheduledExecutor(daemonThreads("launch-ready"));
+        this.maxConcurrentLaunches = Math.max(1, maxConcurrentLaunches);
+    }
+
+    /**
+     * Returns a future that completes once a launch slot is available.
+     */
+    public synchronized CompletableFuture<Void> admit() {
+        CompletableFuture<Void> slot = new CompletableFuture<>();
+        if (active < maxConcurrentLaunches) {
+            active++;
+            slot.complete(null);
+        } else {
+            waiting.addLast(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Releases a launch slot and admits the next waiting launch, if any.
+     */
+    public synchronized void release() {
+        CompletableFuture<Void> next = waiting.pollFirst();
+        if (next == null) {
+            active = Math.max(0, active - 1);
+            return;
+        }
+        // Hand the slot over directly; completion runs the next stage on its own executor.
+        next.complete(null);
+    }
+
+    /**
+     * Returns the executor for provisioning and patching stages.
+     */
+    public Executor io() {
+        return ioExecutor;
+    }
+
+    /**
+     * Returns the executor for the spawn stage.
+     */
+    public Executor spawn() {
+        return spawnExecutor;
+    }
+
+    /**
+     * Polls a readiness probe until it succeeds or the timeout elapses.
+     *
+     * @return future completed when ready, or exceptionally with a {@link TimeoutException}.
+     */
+    public CompletableFuture<Void> awaitReady(BooleanSupplier probe, long timeoutMs) {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        ScheduledFuture<?> task = readyExecutor.scheduleWithFixedDelay(() -> {
+            if (ready.isDone()) {
+                return;
+            }
+            if (probe.getAsBoolean()) {
+                ready.complete(null);
+            } else if (System.nanoTime() - deadline > 0) {
+                ready.completeExceptionally(new TimeoutException("not ready after " + timeoutMs + "ms"));
+            }
+        }, READY_POLL_INTERVAL_MS, READY_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        ready.whenComplete((ignored, error) -> task.cancel(false));
+        return ready;
+    }
+
+    /**
+     * Creates a thread factory for named daemon worker threads.
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.duelistic.system;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable launch settings of a template, compiled once and rendered for every server.
+ *
+ * <p>A spec is built by {@link LaunchSpecCache} from the template config and the
+ * top-level files of all template layers, so a launch needs neither YAML parsing
+ * nor a directory listing.</p>
+ */
+public class LaunchSpec {
+    private final String templateName;
+    private final TemplateConfig config;
+    private final List<String> layers;
+    private final String jarName;
+    private final List<String> jvmArgs;
+    private final List<String> patchFiles;
+    private final Pattern readyPattern;
+    private final List<Long> version;
+
+    /**
+     * Creates a compiled spec.
+     *
+     * @param layers template inheritance chain, base layer first.
+     * @param jarName file name of the server jar relative to the server directory.
+     * @param patchFiles files relative to the server directory that are rendered for each server.
+     * @param version modification stamps of every layer directory and config file.
+     */
+    LaunchSpec(String templateName,
+               TemplateConfig config,
+               List<String> layers,
+               String jarName,
+               List<String> patchFiles,
+               List<Long> version) {
+        this.templateName = templateName;
+        this.config = config;
+        this.layers = Collections.unmodifiableList(new ArrayList<>(layers));
+        this.jarName = jarName;
+        this.patchFiles = Collections.unmodifiableList(new ArrayList<>(patchFiles));
+        this.readyPattern = Pattern.compile(config.getReadyPattern());
+        this.version = Collections.unmodifiableList(new ArrayList<>(version));
+        List<String> args = new ArrayList<>();
+        args.add("java");
+        args.add("-Xms" + config.getMaxRamMb() + "M");
+        args.add("-Xmx" + config.getMaxRamMb() + "M");
+        this.jvmArgs = Collections.unmodifiableList(args);
+    }
+
+    /**
+     * Returns the template name.
+     */
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    /**
+     * Returns the template config the spec was compiled from.
+     */
+    public TemplateConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the template inheritance chain, base layer first.
+     */
+    public List<String> getLayers() {
+        return layers;
+    }
+
+    /**
+     * Returns the file name of the server jar.
+     */
+    public String getJarName() {
+        return jarName;
+    }
+
+    /**
+     * Returns the heap size in MB.
+     */
+    public int getRamMb() {
+        return config.getMaxRamMb();
+    }
+
+    /**
+     * Returns the player capacity of each server.
+     */
+    public int getMaxPlayers() {
+        return config.getMaxPlayers();
+    }
+
+    /**
+     * Returns files rendered for each server, relative to the server directory.
+     */
+    public List<String> getPatchFiles() {
+        return patchFiles;
+    }
+
+    /**
+     * Returns the compiled log pattern that marks a server as booted.
+     */
+    public Pattern getReadyPattern() {
+        return readyPattern;
+    }
+
+    List<Long> getVersion() {
+        return version;
+    }
+
+    /**
+     * Renders the process command line for one server.
+     *
+     * @param cdsArchive trained class archive to boot with, or null.
+     */
+    public List<String> render(Path cdsArchive) {
+        List<String> command = new ArrayList<>(jvmArgs.size() + 3);
+        command.addAll(jvmArgs);
+        if (cdsArchive != null) {
+            command.add("-XX:SharedArchiveFile=" + cdsArchive.toAbsolutePath());
+        }
+        command.add("-jar");
+        command.add(jarName);
+        return command;
+    }
+}
@@ -0,0 +1,162 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Caches one compiled {@link LaunchSpec} per template.
+ *
+ * <p>A cached spec stays valid while the directory and {@code template.yml} of every
+ * layer keep their modification time, so a lookup only stats a few files per layer.
+ * Adding, removing or renaming a top-level file or editing a config recompiles it.</p>
+ */
+public class LaunchSpecCache {
+    private static final String PROPERTIES_FILE = "server.properties";
+    private final CloudDirectories directories;
+    private final Map<String, LaunchSpec> specs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache reading templates from the cloud directories.
+     */
+    public LaunchSpecCache(CloudDirectories directories) {
+        this.directories = directories;
+    }
+
+    /**
+     * Returns the current spec of a template, compiling it if it is missing or outdated.
+     */
+    public LaunchSpec get(String templateName) throws IOException {
+        LaunchSpec cached = specs.get(templateName);
+        if (cached != null && cached.getVersion().equals(readVersion(cached.getLayers()))) {
+            return cached;
+        }
+        LaunchSpec compiled = compile(templateName);
+        specs.put(templateName, compiled);
+        return compiled;
+    }
+
+    /**
+     * Parses the config of every layer and resolves the jar and patch files once.
+     */
+    private LaunchSpec compile(String templateName) throws IOException {
+        List<String> layers = new ArrayList<>();
+        TemplateConfig config = null;
+        String current = templateName;
+        while (current != null) {
+            if (layers.contains(current)) {
+                throw new IOException("Template inheritance cycle: " + String.join(" -> ", layers) + " -> " + current);
+            }
+            if (!directories.templateExists(current)) {
+                throw new IOException("Template not found: " + current);
+            }
+            layers.add(current);
+            TemplateConfig layerConfig = TemplateConfig.loadFrom(directories.getTemplateConfigFile(current));
+            if (config == null) {
+                config = layerConfig;
+            }
+            current = layerConfig.getParent();
+        }
+        Collections.reverse(layers);
+        if (config.getMaxRamMb() <= 0) {
+            throw new IOException("Invalid maxRamMb for template: " + templateName);
+        }
+        // Read the stamps before listing so a concurrent change recompiles on the next lookup.
+        List<Long> version = readVersion(layers);
+        TreeSet<String> jars = new TreeSet<>();
+        boolean hasProperties = false;
+        for (String layer : layers) {
+            try (Stream<Path> stream = Files.list(directories.getTemplateDir(layer))) {
+                for (Path path : (Iterable<Path>) stream::iterator) {
+                    String name = path.getFileName().toString();
+                    if (!Files.isRegularFile(path)) {
+                        continue;
+                    }
+                    if (name.toLowerCase().endsWith(".jar")) {
+                        jars.add(name);
+                    } else if (PROPERTIES_FILE.equals(name)) {
+                        hasProperties = true;
+                    }
+                }
+            }
+        }
+        if (jars.isEmpty()) {
+            throw new IOException("No server jar found in " + templateName);
+        }
+        List<String> patchFiles = new ArrayList<>();
+        if (hasProperties) {
+            patchFiles.add(PROPERTIES_FILE);
+        } else {
+            ConsoleUi.warn("Missing server.properties in template " + templateName);
+        }
+        // Resolved once here, so launches never open files that have nothing to render.
+        for (String renderFile : config.getRenderFiles()) {
+            if (patchFiles.contains(renderFile)) {
+                continue;
+            }
+            if (existsInLayers(layers, renderFile)) {
+                patchFiles.add(renderFile);
+            } else {
+                ConsoleUi.warn("Render file " + renderFile + " not found in template " + templateName);
+            }
+        }
+        // Pick the first jar as the server jar.
+        return new LaunchSpec(templateName, config, layers, jars.first(), patchFiles, version);
+    }
+
+    /**
+     * Returns true if any layer contains the relative file.
+     */
+    private boolean existsInLayers(List<String> layers, String relativePath) {
+        for (String layer : layers) {
+            if (Files.isRegularFile(directories.getTemplateDir(layer).resolve(relativePath))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the modification stamps of every layer directory and config file.
+     */
+    private List<Long> readVersion(List<String> layers) {
+        List<Long> version = new ArrayList<>(layers.size() * 3);
+        for (String layer : layers) {
+            version.add(lastModified(directories.getTemplateDir(layer)));
+            Path configFile = directories.getTemplateConfigFile(layer);
+            version.add(lastModified(configFile));
+            version.add(size(configFile));
+        }
+        return version;
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().to(TimeUnit.MICROSECONDS);
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            return -2;
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
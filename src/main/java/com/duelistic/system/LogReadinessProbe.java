@@ -0,0 +1,100 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Reports a server as ready once its log contains a line matching a pattern.
+ *
+ * <p>Each poll reads only the bytes appended since the previous poll and never waits
+ * for more output. Content that existed before the probe was created is skipped, and a
+ * rotated or truncated log is read again from the start.</p>
+ */
+public class LogReadinessProbe implements BooleanSupplier {
+    private static final int MAX_READ_BYTES = 64 * 1024;
+    private final Path logFile;
+    private final Pattern pattern;
+    private final StringBuilder partialLine = new StringBuilder();
+    private Object fileKey;
+    private long position;
+    private boolean matched;
+
+    /**
+     * Creates a probe positioned at the current end of the log file.
+     */
+    public LogReadinessProbe(Path logFile, Pattern pattern) {
+        this.logFile = logFile;
+        this.pattern = pattern;
+        try {
+            // A recycled server still has the previous run's log, which must not count.
+            BasicFileAttributes attributes = Files.readAttributes(logFile, BasicFileAttributes.class);
+            this.fileKey = attributes.fileKey();
+            this.position = attributes.size();
+        } catch (IOException e) {
+            this.position = 0;
+        }
+    }
+
+    /**
+     * Reads newly appended log output and returns true once the pattern was seen.
+     */
+    @Override
+    public synchronized boolean getAsBoolean() {
+        if (matched) {
+            return true;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(logFile, BasicFileAttributes.class);
+            if (!Objects.equals(fileKey, attributes.fileKey()) || attributes.size() < position) {
+                // The log was rotated or truncated since the last poll.
+                fileKey = attributes.fileKey();
+                position = 0;
+                partialLine.setLength(0);
+            }
+            if (attributes.size() > position) {
+                readAppended();
+            }
+        } catch (NoSuchFileException e) {
+            // Not created yet.
+        } catch (IOException e) {
+            // Try again on the next poll.
+        }
+        return matched;
+    }
+
+    /**
+     * Reads up to {@link #MAX_READ_BYTES} new bytes and matches every completed line.
+     */
+    private void readAppended() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_READ_BYTES);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return;
+            }
+            position += read;
+        }
+        buffer.flip();
+        partialLine.append(StandardCharsets.UTF_8.decode(buffer));
+        int lineEnd;
+        while ((lineEnd = partialLine.indexOf("\n")) >= 0) {
+            String line = partialLine.substring(0, lineEnd);
+            partialLine.delete(0, lineEnd + 1);
+            if (pattern.matcher(line).find()) {
+                matched = true;
+                partialLine.setLength(0);
+                return;
+            }
+        }
+    }
+}
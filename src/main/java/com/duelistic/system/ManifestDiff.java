@@ -0,0 +1,61 @@
+package com.duelistic.system;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Files that differ between a template manifest and a tmp server directory.
+ */
+public class ManifestDiff {
+    private final List<String> added = new ArrayList<>();
+    private final List<String> changed = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+
+    void addAdded(String path) {
+        added.add(path);
+    }
+
+    void addChanged(String path) {
+        changed.add(path);
+    }
+
+    void addRemoved(String path) {
+        removed.add(path);
+    }
+
+    /**
+     * Returns template paths missing in the server directory.
+     */
+    public List<String> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /**
+     * Returns paths whose server copy differs from the template.
+     */
+    public List<String> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+
+    /**
+     * Returns paths that were removed from the template since the server was provisioned.
+     */
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * Returns true if the server directory matches the template.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Returns a one-line count summary.
+     */
+    public String summary() {
+        return added.size() + " added, " + changed.size() + " changed, " + removed.size() + " removed";
+    }
+}
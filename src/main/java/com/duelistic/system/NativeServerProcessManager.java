@@ -0,0 +1,299 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Manages server processes as direct children of the cloud, without GNU screen.
+ *
+ * <p>Starting a server forks only the server JVM itself; stopping and listing need
+ * no fork at all. Every process has its stdin and stdout wired to NIO channels: one
+ * daemon thread per server drains stdout into a {@link ConsoleBuffer} and into
+ * {@code console.log} in the server directory, and commands are written straight
+ * into stdin.</p>
+ *
+ * <p>Servers adopted from a previous cloud run lost their pipes with the old cloud, so
+ * they can be watched, listed and stopped, but their output and stdin are gone until
+ * they are restarted.</p>
+ */
+public class NativeServerProcessManager implements ServerProcessManager {
+    /**
+     * File in the server directory receiving the process output.
+     */
+    public static final String CONSOLE_LOG = "console.log";
+    private static final String DETACH_COMMAND = "detach";
+    private static final int PUMP_BUFFER_BYTES = 8192;
+    private final Map<String, ManagedProcess> processes = new ConcurrentHashMap<>();
+    private final Scanner input;
+    private final int consoleBufferBytes;
+    private volatile ServerExitListener exitListener;
+
+    /**
+     * Creates a process manager reading attached console input from the given scanner.
+     *
+     * @param consoleBufferBytes output kept in memory per server.
+     */
+    public NativeServerProcessManager(Scanner input, int consoleBufferBytes) {
+        this.input = input;
+        this.consoleBufferBytes = consoleBufferBytes;
+    }
+
+    /**
+     * Forks the server JVM with piped stdin and stdout.
+     */
+    @Override
+    public void startServer(String name, List<String> command, Path workingDir) {
+        ManagedProcess previous = processes.get(name);
+        if (previous != null && previous.handle.isAlive()) {
+            ConsoleUi.warn("Server " + name + " is already running (pid " + previous.handle.pid() + ").");
+            return;
+        }
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(workingDir.toFile())
+            .redirectErrorStream(true);
+        try {
+            FileChannel log = FileChannel.open(workingDir.resolve(CONSOLE_LOG),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            Process process;
+            try {
+                process = builder.start();
+            } catch (IOException e) {
+                log.close();
+                throw e;
+            }
+            ManagedProcess managed = new ManagedProcess(name, process, log, new ConsoleBuffer(consoleBufferBytes));
+            processes.put(name, managed);
+            managed.startPump();
+            process.onExit().thenAccept(exited -> {
+                // Stopped servers are removed first, so only unexpected exits get here.
+                ServerExitListener listener = exitListener;
+                if (processes.remove(name, managed) && listener != null) {
+                    listener.onServerExit(name, exited.exitValue());
+                }
+            });
+        } catch (IOException e) {
+            ConsoleUi.error("Failed to start " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Watches a server JVM started by a previous cloud run; its console is not captured.
+     */
+    @Override
+    public boolean adoptServer(String name, ProcessHandle process) {
+        if (!process.isAlive()) {
+            return false;
+        }
+        ManagedProcess managed = new ManagedProcess(name, process);
+        processes.put(name, managed);
+        process.onExit().thenRun(() -> {
+            // Not a child of this cloud, so the exit code is unknown.
+            ServerExitListener listener = exitListener;
+            if (processes.remove(name, managed) && listener != null) {
+                listener.onServerExit(name, -1);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Terminates the server process; the JVM runs its shutdown hooks and saves worlds.
+     */
+    @Override
+    public void stopServer(String name) {
+        ManagedProcess managed = processes.remove(name);
+        if (managed == null) {
+            return;
+        }
+        managed.handle.destroy();
+    }
+
+    /**
+     * Returns the names of live server processes.
+     */
+    @Override
+    public List<String> listServers() {
+        List<String> servers = new ArrayList<>();
+        for (ManagedProcess managed : processes.values()) {
+            if (managed.handle.isAlive()) {
+                servers.add(managed.name);
+            }
+        }
+        Collections.sort(servers);
+        return Collections.unmodifiableList(servers);
+    }
+
+    /**
+     * Mirrors the server output and forwards typed lines as commands until 'detach' is entered.
+     */
+    @Override
+    public void attachServer(String name) {
+        ManagedProcess managed = processes.get(name);
+        if (managed == null) {
+            ConsoleUi.warn("Server not running: " + name);
+            return;
+        }
+        if (managed.console == null) {
+            ConsoleUi.warn("Console of " + name + " is not captured since the cloud restarted.");
+            return;
+        }
+        ConsoleUi.info("Attached to " + name + ". Type '" + DETACH_COMMAND + "' to return.");
+        ConsoleBuffer.Follower follower = managed.console.follow(20);
+        Thread mirror = new Thread(() -> {
+            byte[] chunk = new byte[PUMP_BUFFER_BYTES];
+            try {
+                int read;
+                while ((read = follower.read(chunk, 1000)) >= 0) {
+                    System.out.write(chunk, 0, read);
+                    System.out.flush();
+                }
+            } catch (InterruptedException e) {
+                // Detached.
+            }
+        }, "attach-" + name);
+        mirror.setDaemon(true);
+        mirror.start();
+        try {
+            while (managed.handle.isAlive() && input.hasNextLine()) {
+                String line = input.nextLine();
+                if (DETACH_COMMAND.equalsIgnoreCase(line.trim())) {
+                    break;
+                }
+                sendCommand(name, line);
+            }
+        } finally {
+            mirror.interrupt();
+        }
+        ConsoleUi.info("Detached from " + name + ".");
+    }
+
+    /**
+     * Writes a command line into the server's stdin.
+     */
+    @Override
+    public boolean sendCommand(String name, String command) {
+        ManagedProcess managed = processes.get(name);
+        if (managed == null || managed.process == null || !managed.handle.isAlive()) {
+            return false;
+        }
+        try {
+            managed.write(command);
+            return true;
+        } catch (IOException e) {
+            ConsoleUi.error("Failed to send command to " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the handle of the server JVM.
+     */
+    @Override
+    public ProcessHandle getProcess(String name) {
+        ManagedProcess managed = processes.get(name);
+        return managed == null ? null : managed.handle;
+    }
+
+    /**
+     * Returns the in-memory console output of a running server, or null if it is not running or adopted.
+     */
+    @Override
+    public ConsoleBuffer getConsole(String name) {
+        ManagedProcess managed = processes.get(name);
+        return managed == null ? null : managed.console;
+    }
+
+    @Override
+    public void setExitListener(ServerExitListener listener) {
+        this.exitListener = listener;
+    }
+
+    /**
+     * A running server process and the channels wired to it; adopted processes have none.
+     */
+    private static class ManagedProcess {
+        private final String name;
+        private final ProcessHandle handle;
+        private final Process process;
+        private final FileChannel log;
+        private final ReadableByteChannel stdout;
+        private final WritableByteChannel stdin;
+        private final ConsoleBuffer console;
+
+        private ManagedProcess(String name, Process process, FileChannel log, ConsoleBuffer console) {
+            this.name = name;
+            this.handle = process.toHandle();
+            this.process = process;
+            this.log = log;
+            this.console = console;
+            this.stdout = Channels.newChannel(process.getInputStream());
+            this.stdin = Channels.newChannel(process.getOutputStream());
+        }
+
+        private ManagedProcess(String name, ProcessHandle handle) {
+            this.name = name;
+            this.handle = handle;
+            this.process = null;
+            this.log = null;
+            this.console = null;
+            this.stdout = null;
+            this.stdin = null;
+        }
+
+        /**
+         * Starts the thread draining stdout, so a full pipe never blocks the server.
+         */
+        private void startPump() {
+            Thread pump = new Thread(this::pump, "console-" + name);
+            pump.setDaemon(true);
+            pump.start();
+        }
+
+        private void pump() {
+            ByteBuffer buffer = ByteBuffer.allocate(PUMP_BUFFER_BYTES);
+            try {
+                while (stdout.read(buffer) != -1) {
+                    buffer.flip();
+                    console.append(buffer.array(), 0, buffer.limit());
+                    while (buffer.hasRemaining()) {
+                        log.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                // The process exited or its directory was removed.
+            } finally {
+                console.close();
+                try {
+                    log.close();
+                } catch (IOException e) {
+                    // Nothing left to flush.
+                }
+            }
+        }
+
+        private synchronized void write(String command) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                stdin.write(buffer);
+            }
+            // Channels.newChannel keeps no buffer, but the process stream may.
+            process.getOutputStream().flush();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out server ports from an in-memory bitmap instead of probing every candidate.
+ *
+ * <p>A port is checked against the OS once, when it is allocated. Ports found to be
+ * bound by a foreign process are remembered and skipped by later allocations until a
+ * range runs out, at which point they are probed again.</p>
+ */
+public class PortAllocator {
+    private static final int MAX_PORT = 65535;
+    private final int defaultStart;
+    private final int defaultEnd;
+    private final BitSet reserved = new BitSet(MAX_PORT + 1);
+    private final BitSet foreign = new BitSet(MAX_PORT + 1);
+    private final Map<String, Integer> serverPorts = new HashMap<>();
+
+    /**
+     * Creates an allocator with the default port range used by templates without their own range.
+     */
+    public PortAllocator(int defaultStart, int defaultEnd) {
+        this.defaultStart = clamp(Math.min(defaultStart, defaultEnd));
+        this.defaultEnd = clamp(Math.max(defaultStart, defaultEnd));
+    }
+
+    /**
+     * Reserves a port for a server from the default range.
+     */
+    public int reserve(String serverName) throws IOException {
+        return reserve(serverName, defaultStart, defaultEnd);
+    }
+
+    /**
+     * Reserves the lowest free port in the given inclusive range for a server.
+     *
+     * @return the reserved port.
+     */
+    public synchronized int reserve(String serverName, int rangeStart, int rangeEnd) throws IOException {
+        Integer existing = serverPorts.get(serverName);
+        if (existing != null) {
+            return existing;
+        }
+        int start = clamp(rangeStart);
+        int end = clamp(rangeEnd);
+        int port = reserveFree(serverName, start, end);
+        if (port == -1 && hasForeign(start, end)) {
+            // Ports seen busy may have been freed since, e.g. by a server that finished exiting.
+            foreign.clear(start, end + 1);
+            port = reserveFree(serverName, start, end);
+        }
+        if (port == -1) {
+            throw new IOException("No free ports available in range " + start + "-" + end + ".");
+        }
+        return port;
+    }
+
+    /**
+     * Reserves the first candidate in range that the OS reports as free, marking busy ones foreign.
+     *
+     * @return the reserved port, or -1 if no candidate is free.
+     */
+    private int reserveFree(String serverName, int start, int end) {
+        int port = nextCandidate(start, end);
+        while (port != -1) {
+            // The only OS check: a single bind attempt on the chosen port.
+            if (isPortFree(port)) {
+                reserved.set(port);
+                serverPorts.put(serverName, port);
+                return port;
+            }
+            foreign.set(port);
+            port = nextCandidate(port + 1, end);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if a port in the inclusive range is marked foreign.
+     */
+    private boolean hasForeign(int start, int end) {
+        int port = foreign.nextSetBit(start);
+        return port != -1 && port <= end;
+    }
+
+    /**
+     * Marks a known port as reserved by a server without checking the OS.
+     */
+    public synchronized void reserveExisting(String serverName, int port) {
+        if (serverName == null || port <= 0 || port > MAX_PORT) {
+            return;
+        }
+        release(serverName);
+        reserved.set(port);
+        serverPorts.put(serverName, port);
+    }
+
+    /**
+     * Releases the port reserved by a server, if any.
+     */
+    public synchronized void release(String serverName) {
+        Integer port = serverPorts.remove(serverName);
+        if (port != null) {
+            reserved.clear(port);
+        }
+    }
+
+    /**
+     * Returns the port reserved by a server, or -1 if none.
+     */
+    public synchronized int getPort(String serverName) {
+        Integer port = serverPorts.get(serverName);
+        return port == null ? -1 : port;
+    }
+
+    /**
+     * Finds the next port in range that is neither reserved nor foreign.
+     */
+    private int nextCandidate(int from, int end) {
+        int port = from;
+        while (port <= end) {
+            port = reserved.nextClearBit(port);
+            if (port > end) {
+                return -1;
+            }
+            if (!foreign.get(port)) {
+                return port;
+            }
+            port++;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a port can be bound locally.
+     */
+    private boolean isPortFree(int port) {
+        try (ServerSocket socket = new ServerSocket(port)) {
+            socket.setReuseAddress(true);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int clamp(int port) {
+        return Math.max(1, Math.min(MAX_PORT, port));
+    }
+}
@@ -0,0 +1,359 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Periodically samples CPU, resident memory and disk I/O of every server process from /proc.
+ *
+ * <p>All servers are read in one pass on a single thread. Each server keeps one mutable
+ * sample that is updated in place, and the files are read into one shared buffer and
+ * parsed without building strings, so a pass allocates next to nothing. CPU usage is the
+ * delta of user and system time between two passes, where 100% is one full core.</p>
+ */
+public class ProcessResourceSampler {
+    // USER_HZ and the page size are fixed at these values on all common Linux builds.
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final long PAGE_SIZE_BYTES = 4096;
+    private static final Path PROC_DIR = Paths.get("/proc");
+    private static final byte[] READ_BYTES_KEY = "read_bytes:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WRITE_BYTES_KEY = "write_bytes:".getBytes(StandardCharsets.US_ASCII);
+    private final ServerProcessManager processManager;
+    private final long intervalMs;
+    private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final ScheduledExecutorService executor;
+    private long pass;
+
+    /**
+     * Creates a sampler for the processes of the given manager.
+     *
+     * @param intervalMs time between two sampling passes.
+     */
+    public ProcessResourceSampler(ServerProcessManager processManager, long intervalMs) {
+        this.processManager = processManager;
+        this.intervalMs = intervalMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resource-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts periodic sampling if the host exposes /proc.
+     */
+    public void start() {
+        if (!Files.isDirectory(PROC_DIR)) {
+            ConsoleUi.info("Per-server resource sampling disabled (no /proc).");
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::sampleSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the sampling task immediately.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the latest usage of a server, or null if it was not sampled yet.
+     */
+    public Usage getUsage(String serverName) {
+        Sample sample = samples.get(serverName);
+        return sample == null ? null : sample.toUsage(serverName);
+    }
+
+    /**
+     * Returns the latest usage of all sampled servers, highest CPU first.
+     */
+    public List<Usage> listUsage() {
+        List<Usage> usage = new ArrayList<>(samples.size());
+        for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+            usage.add(entry.getValue().toUsage(entry.getKey()));
+        }
+        usage.sort(Comparator.comparingDouble(Usage::getCpuPercent).reversed());
+        return usage;
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            ConsoleUi.error("Resource sampling failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one sampling pass over all running servers.
+     */
+    synchronized void sample() {
+        pass++;
+        for (String name : processManager.listServers()) {
+            Sample sample = samples.get(name);
+            if (sample == null || !read(sample)) {
+                // The pid is resolved again only for new servers or after the old process is gone.
+                ProcessHandle process = processManager.getProcess(name);
+                if (process == null) {
+                    continue;
+                }
+                if (sample == null || sample.pid != process.pid()) {
+                    sample = new Sample(process.pid());
+                    samples.put(name, sample);
+                }
+                if (!read(sample)) {
+                    continue;
+                }
+            }
+            sample.pass = pass;
+        }
+        samples.values().removeIf(sample -> sample.pass != pass);
+    }
+
+    /**
+     * Reads stat, statm and io of the sample's process and updates it in place.
+     *
+     * @return false if the process is gone.
+     */
+    private boolean read(Sample sample) {
+        long now = System.nanoTime();
+        int length = readFile(sample.statFile);
+        long ticks = length < 0 ? -1 : parseCpuTicks(buffer.array(), length);
+        if (ticks < 0) {
+            return false;
+        }
+        length = readFile(sample.statmFile);
+        long residentPages = length < 0 ? -1 : parseResidentPages(buffer.array(), length);
+        // io is only readable for processes of the same user.
+        length = readFile(sample.ioFile);
+        long readBytes = length < 0 ? -1 : parseField(buffer.array(), length, READ_BYTES_KEY);
+        long writeBytes = length < 0 ? -1 : parseField(buffer.array(), length, WRITE_BYTES_KEY);
+        synchronized (sample) {
+            if (sample.cpuTicks >= 0 && now > sample.sampledAt) {
+                double seconds = (now - sample.sampledAt) / 1_000_000_000.0;
+                sample.cpuPercent = (ticks - sample.cpuTicks) * 100.0 / CLOCK_TICKS_PER_SECOND / seconds;
+            }
+            sample.cpuTicks = ticks;
+            sample.sampledAt = now;
+            sample.rssBytes = residentPages < 0 ? -1 : residentPages * PAGE_SIZE_BYTES;
+            sample.readBytes = readBytes;
+            sample.writeBytes = writeBytes;
+        }
+        return true;
+    }
+
+    /**
+     * Reads a whole file into the shared buffer.
+     *
+     * @return number of bytes read, or -1 if the file cannot be read.
+     */
+    private int readFile(Path file) {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // proc files are generated on read and may arrive in several chunks.
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read > 0 && buffer.hasRemaining());
+            return buffer.position();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns utime plus stime from a /proc/[pid]/stat line, or -1 if it cannot be parsed.
+     */
+    static long parseCpuTicks(byte[] data, int length) {
+        // The command name may contain spaces and parentheses, so fields are counted after the last ')'.
+        int position = length - 1;
+        while (position >= 0 && data[position] != ')') {
+            position--;
+        }
+        if (position < 0) {
+            return -1;
+        }
+        // Field 3 (state) follows the ')', utime and stime are fields 14 and 15.
+        position = skipFields(data, length, position + 1, 11);
+        long utime = parseLong(data, length, position);
+        long stime = parseLong(data, length, skipFields(data, length, position, 1));
+        return utime < 0 || stime < 0 ? -1 : utime + stime;
+    }
+
+    /**
+     * Returns the resident set size in pages from /proc/[pid]/statm, or -1 if it cannot be parsed.
+     */
+    static long parseResidentPages(byte[] data, int length) {
+        return parseLong(data, length, skipFields(data, length, 0, 1));
+    }
+
+    /**
+     * Returns the value of a {@code key: value} line, or -1 if the key is missing.
+     */
+    static long parseField(byte[] data, int length, byte[] key) {
+        for (int start = 0; start + key.length <= length; start++) {
+            if ((start == 0 || data[start - 1] == '\n') && regionMatches(data, start, key)) {
+                return parseLong(data, length, start + key.length);
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] data, int start, byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (data[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of the field that starts after skipping the given number of fields.
+     */
+    private static int skipFields(byte[] data, int length, int position, int count) {
+        for (int i = 0; i < count && position < length; i++) {
+            while (position < length && data[position] == ' ') {
+                position++;
+            }
+            while (position < length && data[position] != ' ') {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Parses a non-negative decimal number after optional spaces, or returns -1.
+     */
+    private static long parseLong(byte[] data, int length, int position) {
+        while (position < length && data[position] == ' ') {
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (position < length && data[position] >= '0' && data[position] <= '9') {
+            value = value * 10 + (data[position] - '0');
+            position++;
+            digits++;
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    /**
+     * Mutable per-process state, updated in place on every pass.
+     */
+    private static class Sample {
+        private final long pid;
+        private final Path statFile;
+        private final Path statmFile;
+        private final Path ioFile;
+        private long pass;
+        private long cpuTicks = -1;
+        private long sampledAt;
+        private double cpuPercent = -1;
+        private long rssBytes = -1;
+        private long readBytes = -1;
+        private long writeBytes = -1;
+
+        private Sample(long pid) {
+            this.pid = pid;
+            Path processDir = PROC_DIR.resolve(String.valueOf(pid));
+            this.statFile = processDir.resolve("stat");
+            this.statmFile = processDir.resolve("statm");
+            this.ioFile = processDir.resolve("io");
+        }
+
+        private synchronized Usage toUsage(String serverName) {
+            return new Usage(serverName, pid, cpuPercent, rssBytes, readBytes, writeBytes);
+        }
+    }
+
+    /**
+     * Resource usage of one server process at the last sampling pass.
+     */
+    public static class Usage {
+        private final String serverName;
+        private final long pid;
+        private final double cpuPercent;
+        private final long rssBytes;
+        private final long readBytes;
+        private final long writeBytes;
+
+        private Usage(String serverName, long pid, double cpuPercent, long rssBytes, long readBytes, long writeBytes) {
+            this.serverName = serverName;
+            this.pid = pid;
+            this.cpuPercent = cpuPercent;
+            this.rssBytes = rssBytes;
+            this.readBytes = readBytes;
+            this.writeBytes = writeBytes;
+        }
+
+        /**
+         * Returns the server name.
+         */
+        public String getServerName() {
+            return serverName;
+        }
+
+        /**
+         * Returns the pid of the server JVM.
+         */
+        public long getPid() {
+            return pid;
+        }
+
+        /**
+         * Returns CPU usage since the previous pass, 100 per busy core, or -1 after the first pass.
+         */
+        public double getCpuPercent() {
+            return cpuPercent;
+        }
+
+        /**
+         * Returns the resident memory in bytes, or -1 if unknown.
+         */
+        public long getRssBytes() {
+            return rssBytes;
+        }
+
+        /**
+         * Returns the resident memory in MiB, or -1 if unknown.
+         */
+        public long getRssMb() {
+            return rssBytes < 0 ? -1 : rssBytes / (1024 * 1024);
+        }
+
+        /**
+         * Returns the bytes read from disk since the process started, or -1 if unknown.
+         */
+        public long getReadBytes() {
+            return readBytes;
+        }
+
+        /**
+         * Returns the bytes written to disk since the process started, or -1 if unknown.
+         */
+        public long getWriteBytes() {
+            return writeBytes;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.duelistic.system;
+
+/**
+ * Immutable summary of a single template provisioning run.
+ */
+public class ProvisionResult {
+    private final String serverName;
+    private final long durationMs;
+    private final int filesCopied;
+    private final long bytesCopied;
+    private final int filesLinked;
+    private final long bytesLinked;
+    private final int filesRemoved;
+    private final long manifestMs;
+
+    /**
+     * Creates a provisioning summary.
+     */
+    public ProvisionResult(String serverName,
+                           long durationMs,
+                           int filesCopied,
+                           long bytesCopied,
+                           int filesLinked,
+                           long bytesLinked,
+                           int filesRemoved,
+                           long manifestMs) {
+        this.serverName = serverName;
+        this.durationMs = durationMs;
+        this.filesCopied = filesCopied;
+        this.bytesCopied = bytesCopied;
+        this.filesLinked = filesLinked;
+        this.bytesLinked = bytesLinked;
+        this.filesRemoved = filesRemoved;
+        this.manifestMs = manifestMs;
+    }
+
+    /**
+     * Returns the provisioned server name.
+     */
+    public String getServerName() {
+        return serverName;
+    }
+
+    /**
+     * Returns how long provisioning took in milliseconds.
+     */
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * Returns the number of files that were physically copied.
+     */
+    public int getFilesCopied() {
+        return filesCopied;
+    }
+
+    /**
+     * Returns the number of bytes that were physically copied.
+     */
+    public long getBytesCopied() {
+        return bytesCopied;
+    }
+
+    /**
+     * Returns the number of files that were hard-linked.
+     */
+    public int getFilesLinked() {
+        return filesLinked;
+    }
+
+    /**
+     * Returns the size of all hard-linked files in bytes.
+     */
+    public long getBytesLinked() {
+        return bytesLinked;
+    }
+
+    /**
+     * Returns the number of files removed because they left the template.
+     */
+    public int getFilesRemoved() {
+        return filesRemoved;
+    }
+
+    /**
+     * Returns how much of the provisioning time was spent rebuilding the template manifest.
+     */
+    public long getManifestMs() {
+        return manifestMs;
+    }
+
+    /**
+     * Returns a short human-readable summary for console output.
+     */
+    public String describe() {
+        return "Provisioned " + serverName + " in " + durationMs + "ms"
+            + " (copied " + filesCopied + " files / " + formatBytes(bytesCopied)
+            + ", linked " + filesLinked + " files / " + formatBytes(bytesLinked)
+            + (filesRemoved > 0 ? ", removed " + filesRemoved + " files" : "") + ")";
+    }
+
+    /**
+     * Formats a byte count using binary units.
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KiB", "MiB", "GiB", "TiB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+}
@@ -7,14 +7,25 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.duelistic.ui.ConsoleUi;
 
 /**
  * Manages server processes using GNU screen sessions.
+ *
+ * <p>After a start the session's process is looked up once, and its exit is watched
+ * through {@link ProcessHandle#onExit()}. Screen sessions are not children of the
+ * cloud, so their exit code is not visible and reported as -1.</p>
  */
 public class ScreenServerProcessManager implements ServerProcessManager {
+    private final Map<String, Long> sessionPids = new ConcurrentHashMap<>();
+    private volatile ServerExitListener exitListener;
+
     /**
      * Starts a server in a detached screen session.
      */
@@ -28,6 +39,20 @@ public class ScreenServerProcessManager implements ServerProcessManager {
         fullCommand.add("-dm");
         fullCommand.addAll(command);
         runCommand(fullCommand, workingDir, false);
+        watchSession(name);
+    }
+
+    /**
+     * Watches a server left running by a previous cloud run; its screen session is reused by name.
+     */
+    @Override
+    public boolean adoptServer(String name, ProcessHandle process) {
+        if (!process.isAlive()) {
+            return false;
+        }
+        // Either the session or the JVM inside it, both exit together with the server.
+        watch(name, process);
+        return true;
     }
 
     /**
@@ -35,6 +60,7 @@ public class ScreenServerProcessManager implements ServerProcessManager {
      */
     @Override
     public void stopServer(String name) {
+        sessionPids.remove(name);
         // Stop the screen session by name.
         List<String> fullCommand = new ArrayList<>();
         fullCommand.add("screen");
@@ -50,15 +76,18 @@ public class ScreenServerProcessManager implements ServerProcessManager {
      */
     @Override
     public List<String> listServers() {
-        // Parse "screen -ls" output into session names.
+        return Collections.unmodifiableList(new ArrayList<>(listSessions().keySet()));
+    }
+
+    /**
+     * Parses "screen -ls" output into session names and their pids.
+     */
+    private Map<String, Long> listSessions() {
         List<String> listCommand = new ArrayList<>();
         listCommand.add("screen");
         listCommand.add("-ls");
         List<String> lines = runCommand(listCommand, null, true);
-        if (lines.isEmpty()) {
-            return Collections.emptyList();
-        }
-        List<String> servers = new ArrayList<>();
+        Map<String, Long> sessions = new LinkedHashMap<>();
         for (String line : lines) {
             String trimmed = line.trim();
             int dotIndex = trimmed.indexOf('.');
@@ -66,15 +95,82 @@ public class ScreenServerProcessManager implements ServerProcessManager {
                 continue;
             }
             int end = trimmed.indexOf(' ', dotIndex + 1);
+            int tab = trimmed.indexOf('\t', dotIndex + 1);
+            if (end == -1 || (tab != -1 && tab < end)) {
+                end = tab;
+            }
             if (end == -1) {
                 end = trimmed.length();
             }
             String name = trimmed.substring(dotIndex + 1, end).trim();
-            if (!name.isEmpty()) {
-                servers.add(name);
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                sessions.put(name, Long.parseLong(trimmed.substring(0, dotIndex)));
+            } catch (NumberFormatException e) {
+                // Not a session line.
             }
         }
-        return Collections.unmodifiableList(servers);
+        return sessions;
+    }
+
+    /**
+     * Watches the exit of a freshly started session and reports it unless it was stopped.
+     */
+    private void watchSession(String name) {
+        Long pid = listSessions().get(name);
+        if (pid == null) {
+            return;
+        }
+        ProcessHandle.of(pid).ifPresent(session -> watch(name, session));
+    }
+
+    /**
+     * Reports the exit of a server process unless the server was stopped.
+     */
+    private void watch(String name, ProcessHandle process) {
+        Long pid = process.pid();
+        sessionPids.put(name, pid);
+        process.onExit().thenRun(() -> {
+            ServerExitListener listener = exitListener;
+            if (sessionPids.remove(name, pid) && listener != null) {
+                listener.onServerExit(name, -1);
+            }
+        });
+    }
+
+    /**
+     * Returns the server JVM running inside the session, or the session process if it has none.
+     */
+    @Override
+    public ProcessHandle getProcess(String name) {
+        Long pid = sessionPids.get(name);
+        if (pid == null) {
+            pid = listSessions().get(name);
+        }
+        if (pid == null) {
+            return null;
+        }
+        Optional<ProcessHandle> session = ProcessHandle.of(pid);
+        if (!session.isPresent()) {
+            return null;
+        }
+        // screen -dm runs the command directly, so the JVM is the session's only child.
+        return session.get().children().findFirst().orElse(session.get());
+    }
+
+    /**
+     * Returns null: screen owns the terminal of its sessions, so output is not captured.
+     */
+    @Override
+    public ConsoleBuffer getConsole(String name) {
+        return null;
+    }
+
+    @Override
+    public void setExitListener(ServerExitListener listener) {
+        this.exitListener = listener;
     }
 
     /**
@@ -90,6 +186,33 @@ public class ScreenServerProcessManager implements ServerProcessManager {
         runCommand(attachCommand, null, false);
     }
 
+    /**
+     * Types a command line into the server's screen window.
+     */
+    @Override
+    public boolean sendCommand(String name, String command) {
+        // "stuff" injects the text as if typed; \r submits the line.
+        List<String> stuffCommand = new ArrayList<>();
+        stuffCommand.add("screen");
+        stuffCommand.add("-S");
+        stuffCommand.add(name);
+        stuffCommand.add("-p");
+        stuffCommand.add("0");
+        stuffCommand.add("-X");
+        stuffCommand.add("stuff");
+        stuffCommand.add(command + "\r");
+        try {
+            Process process = new ProcessBuilder(stuffCommand).inheritIO().start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            ConsoleUi.error("Screen command failed: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     /**
      * Executes a screen command and optionally captures stdout lines.
      */
@@ -1,29 +1,40 @@
 package com.duelistic.system;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.duelistic.ui.ConsoleUi;
 
 /**
- * Periodically checks servers for crashes and scales templates as needed.
+ * Restarts crashed servers and scales templates as needed.
+ *
+ * <p>Crashes are reported right away by the process manager's exit events. The periodic
+ * status check remains as a slower safety net for servers that hang or whose exit was
+ * not observed.</p>
  */
 public class ServerAutoRenewService {
+    private static final long HUNG_KILL_WAIT_SECONDS = 10;
     private final CloudDirectories directories;
     private final ServerStatusService statusService;
     private final ServerLauncher launcher;
     private final ServerProcessManager processManager;
     private final ServerPlayerRegistry playerRegistry;
+    private final ServerStandbyPool standbyPool;
     private final Map<String, Boolean> lastOnline = new HashMap<>();
     private final ScheduledExecutorService executor;
     private final long intervalMs;
+    private final boolean recycleCrashedServers;
 
     /**
      * Creates a new auto-renew service with the provided dependencies.
@@ -33,13 +44,17 @@ public class ServerAutoRenewService {
                                   ServerLauncher launcher,
                                   ServerProcessManager processManager,
                                   ServerPlayerRegistry playerRegistry,
-                                  long intervalMs) {
+                                  ServerStandbyPool standbyPool,
+                                  long intervalMs,
+                                  boolean recycleCrashedServers) {
         this.directories = directories;
         this.statusService = statusService;
         this.launcher = launcher;
         this.processManager = processManager;
         this.playerRegistry = playerRegistry;
+        this.standbyPool = standbyPool;
         this.intervalMs = intervalMs;
+        this.recycleCrashedServers = recycleCrashedServers;
         this.executor = Executors.newSingleThreadScheduledExecutor();
     }
 
@@ -58,6 +73,83 @@ public class ServerAutoRenewService {
         executor.shutdownNow();
     }
 
+    /**
+     * Handles a server process that exited without being stopped by the cloud.
+     *
+     * <p>Runs on the check thread, so exit events and periodic checks never overlap.</p>
+     */
+    public void onServerExit(String serverName, int exitCode) {
+        try {
+            executor.execute(() -> handleExit(serverName, exitCode));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the exit is expected.
+        }
+    }
+
+    /**
+     * Kills and restarts a server the watchdog found hung.
+     */
+    public void onServerHung(ServerHangEvent event) {
+        try {
+            executor.execute(() -> handleHung(event));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the server is stopped anyway.
+        }
+    }
+
+    /**
+     * Kills a hung server and hands it to crash handling.
+     */
+    private void handleHung(ServerHangEvent event) {
+        String serverName = event.getServerName();
+        if (!Files.isDirectory(directories.getTmpServerDir(serverName))) {
+            return;
+        }
+        ProcessHandle process = processManager.getProcess(serverName);
+        // Stopping first keeps the kill below from being reported as another crash.
+        processManager.stopServer(serverName);
+        if (process != null) {
+            // A deadlocked JVM may never finish its shutdown hooks, so it is not asked politely.
+            process.destroyForcibly();
+            try {
+                process.onExit().get(HUNG_KILL_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                ConsoleUi.error("Failed to kill hung server " + serverName + " (pid " + process.pid() + ").");
+                return;
+            }
+        }
+        lastOnline.put(serverName, false);
+        handleCrash(serverName, readTemplateName(serverName), "hung, no heartbeat for " + event.getSilentMs() + "ms");
+    }
+
+    /**
+     * Routes a process exit to crash handling unless another component owns the server.
+     */
+    private void handleExit(String serverName, int exitCode) {
+        String code = exitCode >= 0 ? "exit code " + exitCode : "unknown exit code";
+        if (launcher.isBooting(serverName)) {
+            // The start watchdog relaunches servers that never become ready.
+            ConsoleUi.warn(serverName + " exited while booting (" + code + ").");
+            return;
+        }
+        if (launcher.isStopping(serverName)) {
+            return;
+        }
+        if (standbyPool.isStandby(serverName)) {
+            standbyPool.refillAll();
+            return;
+        }
+        if (!Files.isDirectory(directories.getTmpServerDir(serverName))) {
+            return;
+        }
+        // Keeps the next periodic check from handling the same crash again.
+        lastOnline.put(serverName, false);
+        handleCrash(serverName, readTemplateName(serverName), code);
+    }
+
     /**
      * Runs a single cycle of crash detection and scaling.
      */
@@ -71,42 +163,61 @@ public class ServerAutoRenewService {
                 boolean wasOnline = lastOnline.getOrDefault(name, false);
                 boolean isOnline = status.isOnline();
                 lastOnline.put(name, isOnline);
-                if (wasOnline && !isOnline) {
+                if (wasOnline && !isOnline && !launcher.isStopping(name)) {
                     // Server went offline since last check, treat as crash.
-                    handleCrash(status);
+                    handleCrash(name, status.getTemplate(), "offline");
                 }
             }
             lastOnline.keySet().retainAll(seen);
             playerRegistry.prune(seen);
             // Ensure template min/max requirements are respected.
             checkScaleUp(statuses);
+            standbyPool.refillAll();
         } catch (IOException e) {
             ConsoleUi.error("Auto-renew check failed: " + e.getMessage());
         }
     }
 
     /**
-     * Handles a server that was online and now appears offline.
+     * Handles a server that exited or was online and now appears offline.
      */
-    private void handleCrash(ServerStatus status) {
-        String serverName = status.getName();
-        String template = status.getTemplate();
-        ConsoleUi.warn("Detected shutdown / crash for " + serverName + " (template " + template + ").");
+    private void handleCrash(String serverName, String template, String reason) {
+        ConsoleUi.warn("Detected shutdown / crash for " + serverName + " (template " + template + ", " + reason + ").");
         try {
             processManager.stopServer(serverName);
-            directories.deleteTmpServer(serverName);
             playerRegistry.removeServer(serverName);
-            int remaining = countServersForTemplate(template);
             TemplateConfig config = TemplateConfig.loadFrom(directories.getTemplateConfigFile(template));
+            int remaining = countServersForTemplate(template) - 1;
+            if (recycleCrashedServers && remaining < config.getServerMin() && recycle(template, serverName)) {
+                return;
+            }
+            directories.deleteTmpServer(serverName);
+            launcher.releaseServer(serverName);
             if (remaining < config.getServerMin()) {
                 ConsoleUi.info("Restarting a " + template + " server to maintain minimum.");
-                launcher.startTemplateServer(template);
+                startOrPromote(template);
             }
         } catch (IOException e) {
             ConsoleUi.error("Auto-renew failed for " + serverName + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Relaunches a crashed server in its own directory and on its own port.
+     *
+     * @return true if the server was started again.
+     */
+    private boolean recycle(String template, String serverName) {
+        try {
+            ConsoleUi.info("Recycling " + serverName + " to maintain minimum.");
+            launcher.recycleServer(template, serverName);
+            return true;
+        } catch (IOException e) {
+            ConsoleUi.warn("Recycling " + serverName + " failed, replacing it: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Counts tmp servers that belong to a template.
      */
@@ -114,7 +225,7 @@ public class ServerAutoRenewService {
         // Count tmp servers that belong to a template.
         int count = 0;
         for (String serverName : directories.listTmpServers()) {
-            if (template.equals(readTemplateName(serverName))) {
+            if (template.equals(readTemplateName(serverName)) && !standbyPool.isStandby(serverName)) {
                 count++;
             }
         }
@@ -180,8 +291,17 @@ public class ServerAutoRenewService {
             }
             if (allFull) {
                 ConsoleUi.info("All " + template + " servers are full. Scaling up...");
-                launcher.startTemplateServer(template);
+                startOrPromote(template);
             }
         }
     }
+
+    /**
+     * Promotes a standby server if one is ready, otherwise launches a new one.
+     */
+    private void startOrPromote(String template) throws IOException {
+        if (standbyPool.promote(template) == null) {
+            launcher.startTemplateServer(template);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package com.duelistic.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends one console command to every server of a template at the same time.
+ *
+ * <p>Each server is handled by its own task: the command goes out through the process
+ * manager and, where the console is captured, the output that follows is collected until
+ * the server goes quiet or the timeout passes. Output is whatever the server printed in
+ * that window, so unrelated log lines can be part of it.</p>
+ */
+public class ServerCommandBroadcaster {
+    private static final long QUIET_MS = 250;
+    private static final int MAX_OUTPUT_BYTES = 64 * 1024;
+    private final ServerStatusService statusService;
+    private final ServerProcessManager processManager;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a broadcaster sending commands through the process manager.
+     */
+    public ServerCommandBroadcaster(ServerStatusService statusService, ServerProcessManager processManager) {
+        this.statusService = statusService;
+        this.processManager = processManager;
+        AtomicInteger counter = new AtomicInteger();
+        // Collecting output blocks a thread per server, so idle threads are kept only briefly.
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "command-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends the command to all servers of the template, standby servers included.
+     *
+     * @param timeoutMs how long to collect output of each server.
+     * @return one result per server, in server name order.
+     */
+    public CompletableFuture<List<Result>> broadcast(String templateName, String command, long timeoutMs) throws IOException {
+        List<CompletableFuture<Result>> sends = new ArrayList<>();
+        for (ServerStatus status : statusService.listStatuses(true)) {
+            if (templateName.equals(status.getTemplate())) {
+                String serverName = status.getName();
+                sends.add(CompletableFuture.supplyAsync(() -> send(serverName, command, timeoutMs), executor));
+            }
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<Result> results = new ArrayList<>(sends.size());
+                for (CompletableFuture<Result> send : sends) {
+                    results.add(send.join());
+                }
+                return results;
+            });
+    }
+
+    /**
+     * Delivers the command to one server and collects the output it prints in response.
+     */
+    private Result send(String serverName, String command, long timeoutMs) {
+        ConsoleBuffer console = processManager.getConsole(serverName);
+        // Following from the current end before sending keeps older output out of the result.
+        ConsoleBuffer.Follower follower = console == null ? null : console.follow(0);
+        if (!processManager.sendCommand(serverName, command)) {
+            return new Result(serverName, false, null);
+        }
+        if (follower == null) {
+            return new Result(serverName, true, null);
+        }
+        try {
+            return new Result(serverName, true, collect(follower, timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(serverName, true, null);
+        }
+    }
+
+    /**
+     * Reads output until nothing arrived for a short while after the first bytes, or the timeout.
+     */
+    private static String collect(ConsoleBuffer.Follower follower, long timeoutMs) throws InterruptedException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (output.size() < MAX_OUTPUT_BYTES) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            int read = follower.read(chunk, output.size() == 0 ? remaining : Math.min(QUIET_MS, remaining));
+            if (read <= 0) {
+                break;
+            }
+            output.write(chunk, 0, Math.min(read, MAX_OUTPUT_BYTES - output.size()));
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Outcome of sending a command to one server.
+     */
+    public static class Result {
+        private final String serverName;
+        private final boolean delivered;
+        private final String output;
+
+        private Result(String serverName, boolean delivered, String output) {
+            this.serverName = serverName;
+            this.delivered = delivered;
+            this.output = output;
+        }
+
+        /**
+         * Returns the server name.
+         */
+        public String getServerName() {
+            return serverName;
+        }
+
+        /**
+         * Returns true if the command reached the server.
+         */
+        public boolean isDelivered() {
+            return delivered;
+        }
+
+        /**
+         * Returns the collected output, or null if the console is not captured.
+         */
+        public String getOutput() {
+            return output;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.duelistic.system;
+
+/**
+ * Receives server processes that exited without being stopped by the cloud.
+ */
+@FunctionalInterface
+public interface ServerExitListener {
+    /**
+     * Called once after a server process exited on its own.
+     *
+     * @param exitCode process exit code, or -1 if the process manager cannot see it.
+     */
+    void onServerExit(String serverName, int exitCode);
+}
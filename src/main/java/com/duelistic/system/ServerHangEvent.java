@@ -0,0 +1,70 @@
+package com.duelistic.system;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Immutable record of a server that kept its port open but stopped sending heartbeats.
+ */
+public class ServerHangEvent {
+    private final String serverName;
+    private final int port;
+    private final Instant lastHeartbeatAt;
+    private final Instant detectedAt;
+    private final Path archiveDir;
+
+    /**
+     * Creates a hang event.
+     *
+     * @param archiveDir directory holding the thread dump and log, or null if none was captured.
+     */
+    public ServerHangEvent(String serverName, int port, Instant lastHeartbeatAt, Instant detectedAt, Path archiveDir) {
+        this.serverName = serverName;
+        this.port = port;
+        this.lastHeartbeatAt = lastHeartbeatAt;
+        this.detectedAt = detectedAt;
+        this.archiveDir = archiveDir;
+    }
+
+    /**
+     * Returns the server name.
+     */
+    public String getServerName() {
+        return serverName;
+    }
+
+    /**
+     * Returns the port that still accepted connections.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Returns when the last heartbeat arrived.
+     */
+    public Instant getLastHeartbeatAt() {
+        return lastHeartbeatAt;
+    }
+
+    /**
+     * Returns when the hang was detected.
+     */
+    public Instant getDetectedAt() {
+        return detectedAt;
+    }
+
+    /**
+     * Returns how long the server was silent when it was detected, in milliseconds.
+     */
+    public long getSilentMs() {
+        return detectedAt.toEpochMilli() - lastHeartbeatAt.toEpochMilli();
+    }
+
+    /**
+     * Returns the directory holding the thread dump and log, or null if none was captured.
+     */
+    public Path getArchiveDir() {
+        return archiveDir;
+    }
+}
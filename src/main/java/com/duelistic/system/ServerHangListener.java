@@ -0,0 +1,12 @@
+package com.duelistic.system;
+
+/**
+ * Receives servers the watchdog found hung.
+ */
+@FunctionalInterface
+public interface ServerHangListener {
+    /**
+     * Called once per detection, after the thread dump was taken.
+     */
+    void onServerHung(ServerHangEvent event);
+}
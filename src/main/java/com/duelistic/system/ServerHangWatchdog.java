@@ -0,0 +1,211 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.duelistic.ui.ConsoleUi;
+import com.duelistic.util.NetworkUtil;
+
+/**
+ * Detects servers whose port is still open but whose plugin stopped sending heartbeats.
+ *
+ * <p>A deadlocked main thread keeps the socket listening, so the status check would report
+ * such a server online forever. Only servers whose plugin reported at least once since
+ * they started are watched; servers without the plugin are never treated as hung. On
+ * detection the server's thread dump and log are archived, and every listener gets a
+ * {@link ServerHangEvent}.</p>
+ */
+public class ServerHangWatchdog {
+    private static final long DUMP_TIMEOUT_SECONDS = 15;
+    private static final long SIGQUIT_SETTLE_MS = 1000;
+    private static final int SIGQUIT_DUMP_LINES = 5000;
+    private static final DateTimeFormatter ARCHIVE_STAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+    private final CloudDirectories directories;
+    private final ServerPlayerRegistry playerRegistry;
+    private final ServerProcessManager processManager;
+    private final Predicate<String> transitioning;
+    private final long heartbeatIntervalMs;
+    private final int missedHeartbeats;
+    private final boolean threadDumps;
+    private final List<ServerHangListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Instant> reported = new HashMap<>();
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Creates a watchdog checking once per heartbeat interval.
+     *
+     * @param transitioning tells whether a server is being launched or stopped on purpose, which is skipped.
+     * @param heartbeatIntervalMs interval in which server plugins report their counts.
+     * @param missedHeartbeats heartbeats a server may miss before it counts as hung, 0 to disable.
+     * @param threadDumps whether a thread dump is archived before the server is restarted.
+     */
+    public ServerHangWatchdog(CloudDirectories directories,
+                              ServerPlayerRegistry playerRegistry,
+                              ServerProcessManager processManager,
+                              Predicate<String> transitioning,
+                              long heartbeatIntervalMs,
+                              int missedHeartbeats,
+                              boolean threadDumps) {
+        this(directories, playerRegistry, processManager, transitioning, heartbeatIntervalMs, missedHeartbeats,
+            threadDumps, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a watchdog that reads the current time from the given clock.
+     */
+    ServerHangWatchdog(CloudDirectories directories,
+                       ServerPlayerRegistry playerRegistry,
+                       ServerProcessManager processManager,
+                       Predicate<String> transitioning,
+                       long heartbeatIntervalMs,
+                       int missedHeartbeats,
+                       boolean threadDumps,
+                       Clock clock) {
+        this.directories = directories;
+        this.playerRegistry = playerRegistry;
+        this.processManager = processManager;
+        this.transitioning = transitioning;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.missedHeartbeats = missedHeartbeats;
+        this.threadDumps = threadDumps;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Registers a listener told about every detected hang.
+     */
+    public void addListener(ServerHangListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts the periodic heartbeat check.
+     */
+    public void start() {
+        if (missedHeartbeats <= 0) {
+            ConsoleUi.info("Hung server detection disabled (hangMissedHeartbeats: 0).");
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::checkServers, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduled check task immediately.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a single check over all servers known to the registry.
+     */
+    void checkServers() {
+        try {
+            long staleAfterMs = heartbeatIntervalMs * missedHeartbeats;
+            Set<String> servers = playerRegistry.getServerNames();
+            reported.keySet().retainAll(servers);
+            for (String serverName : servers) {
+                Instant heartbeat = playerRegistry.getLastHeartbeatAt(serverName);
+                // Reported once per silence; a new heartbeat or a restart arms the server again.
+                if (heartbeat == null || heartbeat.equals(reported.get(serverName))) {
+                    continue;
+                }
+                if (transitioning.test(serverName)) {
+                    continue;
+                }
+                Instant now = clock.instant();
+                if (now.toEpochMilli() - heartbeat.toEpochMilli() < staleAfterMs) {
+                    continue;
+                }
+                int port = playerRegistry.getPort(serverName);
+                // A closed port is a crash, which the auto-renew check already handles.
+                if (port <= 0 || !NetworkUtil.isPortOpen(port)) {
+                    continue;
+                }
+                reported.put(serverName, heartbeat);
+                ServerHangEvent event = new ServerHangEvent(serverName, port, heartbeat, now,
+                    threadDumps ? archive(serverName) : null);
+                ConsoleUi.warn(serverName + " is hung: port " + port + " is open but no heartbeat for "
+                    + event.getSilentMs() + "ms.");
+                for (ServerHangListener listener : listeners) {
+                    listener.onServerHung(event);
+                }
+            }
+        } catch (RuntimeException e) {
+            ConsoleUi.error("Hang check failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves a thread dump and the current log of a server into a new archive directory.
+     *
+     * @return the archive directory, or null if it could not be written.
+     */
+    private Path archive(String serverName) {
+        Path archiveDir = directories.getLogArchiveDir().resolve(serverName + "-" + ARCHIVE_STAMP.format(clock.instant()));
+        try {
+            Files.createDirectories(archiveDir);
+            writeThreadDump(serverName, archiveDir.resolve("threads.txt"));
+            Path latestLog = directories.getTmpServerDir(serverName).resolve("logs").resolve("latest.log");
+            if (Files.exists(latestLog)) {
+                Files.copy(latestLog, archiveDir.resolve("latest.log"));
+            }
+            ConsoleUi.info("Archived thread dump of " + serverName + " to " + archiveDir);
+            return archiveDir;
+        } catch (IOException e) {
+            ConsoleUi.error("Failed to archive " + serverName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a thread dump with jcmd, falling back to SIGQUIT and the captured console.
+     */
+    private void writeThreadDump(String serverName, Path target) throws IOException {
+        ProcessHandle process = processManager.getProcess(serverName);
+        if (process == null) {
+            return;
+        }
+        String pid = String.valueOf(process.pid());
+        Path jcmd = Paths.get(System.getProperty("java.home"), "bin", "jcmd");
+        try {
+            if (Files.isExecutable(jcmd)) {
+                Process dump = new ProcessBuilder(jcmd.toString(), pid, "Thread.print")
+                    .redirectErrorStream(true)
+                    .redirectOutput(target.toFile())
+                    .start();
+                if (dump.waitFor(DUMP_TIMEOUT_SECONDS, TimeUnit.SECONDS) && dump.exitValue() == 0) {
+                    return;
+                }
+                dump.destroyForcibly();
+            }
+            // SIGQUIT makes the JVM print the dump to its own console.
+            new ProcessBuilder("kill", "-3", pid).start().waitFor();
+            ConsoleBuffer console = processManager.getConsole(serverName);
+            if (console != null) {
+                Thread.sleep(SIGQUIT_SETTLE_MS);
+                Files.write(target, console.tail(SIGQUIT_DUMP_LINES));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
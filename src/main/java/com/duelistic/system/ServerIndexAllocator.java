@@ -0,0 +1,87 @@
+package com.duelistic.system;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out the lowest free server index per template without touching the filesystem.
+ *
+ * <p>Server names follow the {@code <template>-<index>} scheme. Indexes are returned
+ * when servers stop, so freed names such as {@code lobby-2} are reused.</p>
+ */
+public class ServerIndexAllocator {
+    private final Map<String, BitSet> usedIndexes = new HashMap<>();
+
+    /**
+     * Reserves the lowest free index for a template.
+     *
+     * @return the reserved index, starting at 1.
+     */
+    public synchronized int acquire(String template) {
+        BitSet used = usedIndexes.computeIfAbsent(template, key -> new BitSet());
+        int index = used.nextClearBit(1);
+        used.set(index);
+        return index;
+    }
+
+    /**
+     * Reserves a specific index for a template.
+     *
+     * @return true if the index was free and is now reserved.
+     */
+    public synchronized boolean claim(String template, int index) {
+        if (index <= 0) {
+            return false;
+        }
+        BitSet used = usedIndexes.computeIfAbsent(template, key -> new BitSet());
+        if (used.get(index)) {
+            return false;
+        }
+        used.set(index);
+        return true;
+    }
+
+    /**
+     * Returns the index held by a server name to its template.
+     */
+    public synchronized void release(String serverName) {
+        int dash = serverName == null ? -1 : serverName.lastIndexOf('-');
+        if (dash <= 0) {
+            return;
+        }
+        int index = parseIndex(serverName.substring(dash + 1));
+        BitSet used = usedIndexes.get(serverName.substring(0, dash));
+        if (used != null && index > 0) {
+            used.clear(index);
+        }
+    }
+
+    /**
+     * Re-reserves the indexes of already known server names.
+     */
+    public synchronized void rebuild(Collection<String> serverNames) {
+        for (String serverName : serverNames) {
+            int dash = serverName.lastIndexOf('-');
+            if (dash <= 0) {
+                continue;
+            }
+            int index = parseIndex(serverName.substring(dash + 1));
+            if (index > 0) {
+                claim(serverName.substring(0, dash), index);
+            }
+        }
+    }
+
+    /**
+     * Parses an index suffix, returning 0 when it is not numeric.
+     */
+    private static int parseIndex(String suffix) {
+        try {
+            return Integer.parseInt(suffix);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
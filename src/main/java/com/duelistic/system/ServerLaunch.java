@@ -0,0 +1,130 @@
+package com.duelistic.system;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tracks a single server launch as it moves through the launch pipeline.
+ */
+public class ServerLaunch {
+    private final LaunchSpec spec;
+    private final String serverName;
+    private final int port;
+    private final boolean advertise;
+    private final CompletableFuture<String> spawned = new CompletableFuture<>();
+    private final CompletableFuture<String> ready = new CompletableFuture<>();
+    private Path serverDir;
+    private Path cdsArchive;
+    private long spawnedAtNanos;
+    private LogReadinessProbe readinessProbe;
+    private int attempt = 1;
+    private final long createdAtNanos = System.nanoTime();
+
+    /**
+     * Creates a launch for a planned server name and port.
+     */
+    ServerLaunch(LaunchSpec spec, String serverName, int port, boolean advertise) {
+        this.spec = spec;
+        this.serverName = serverName;
+        this.port = port;
+        this.advertise = advertise;
+    }
+
+    /**
+     * Returns the template the server is launched from.
+     */
+    public String getTemplateName() {
+        return spec.getTemplateName();
+    }
+
+    /**
+     * Returns the server name.
+     */
+    public String getServerName() {
+        return serverName;
+    }
+
+    /**
+     * Returns the port assigned to the server.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Returns whether the server is registered for players once spawned.
+     */
+    public boolean isAdvertised() {
+        return advertise;
+    }
+
+    /**
+     * Returns a future completed with the server name once the process was spawned.
+     */
+    public CompletableFuture<String> spawned() {
+        return spawned;
+    }
+
+    /**
+     * Returns a future completed with the server name once the server accepts connections.
+     */
+    public CompletableFuture<String> ready() {
+        return ready;
+    }
+
+    LaunchSpec getSpec() {
+        return spec;
+    }
+
+    TemplateConfig getConfig() {
+        return spec.getConfig();
+    }
+
+    Path getServerDir() {
+        return serverDir;
+    }
+
+    void setServerDir(Path serverDir) {
+        this.serverDir = serverDir;
+    }
+
+    Path getJarFile() {
+        return serverDir.resolve(spec.getJarName());
+    }
+
+    Path getCdsArchive() {
+        return cdsArchive;
+    }
+
+    void setCdsArchive(Path cdsArchive) {
+        this.cdsArchive = cdsArchive;
+    }
+
+    long getSpawnedAtNanos() {
+        return spawnedAtNanos;
+    }
+
+    void setSpawnedAtNanos(long spawnedAtNanos) {
+        this.spawnedAtNanos = spawnedAtNanos;
+    }
+
+    LogReadinessProbe getReadinessProbe() {
+        return readinessProbe;
+    }
+
+    void setReadinessProbe(LogReadinessProbe readinessProbe) {
+        this.readinessProbe = readinessProbe;
+    }
+
+    int getAttempt() {
+        return attempt;
+    }
+
+    void setAttempt(int attempt) {
+        this.attempt = attempt;
+    }
+
+    long getCreatedAtNanos() {
+        return createdAtNanos;
+    }
+}
@@ -1,35 +1,191 @@
 package com.duelistic.system;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import com.duelistic.Cloud;
 import com.duelistic.ui.ConsoleUi;
+import com.duelistic.util.NetworkUtil;
 import com.duelistic.util.ResourceUtil;
 
 /**
  * Starts temporary server instances from templates and assigns ports.
+ *
+ * <p>Every launch runs through the {@link LaunchPipeline} stages: provision (copy the
+ * template), patch (ports and CDS archive lookup), spawn (fork the process) and ready
+ * (wait until the server accepts connections). Template settings come from a cached
+ * {@link LaunchSpec}, so a launch does not parse YAML or list template directories.</p>
+ *
+ * <p>Every spawned server is recorded in the {@link ServerStateJournal}, so a restarted
+ * cloud reattaches to the servers that are still running instead of starting over.</p>
  */
 public class ServerLauncher {
-    private static final int BASE_PORT = 25565;
+    private static final int MAX_START_ATTEMPTS = 3;
+    private static final long START_KILL_WAIT_SECONDS = 10;
     private final CloudDirectories directories;
     private final ServerProcessManager processManager;
     private final ServerPlayerRegistry playerRegistry;
+    private final LaunchPipeline pipeline;
+    private final PortAllocator portAllocator;
+    private final ServerIndexAllocator indexAllocator;
+    private final long readyTimeoutMs;
+    private final CdsArchiveManager cdsArchives;
+    private final LaunchMetrics launchMetrics;
+    private final LaunchSpecCache specs;
+    private final CpuAffinityPolicy affinity;
+    private final ServerStateJournal journal;
+    private final Set<String> booting = ConcurrentHashMap.newKeySet();
+    private final Set<String> stopping = ConcurrentHashMap.newKeySet();
 
     /**
      * Creates a launcher that can start template servers.
      */
-    public ServerLauncher(CloudDirectories directories, ServerProcessManager processManager, ServerPlayerRegistry playerRegistry) {
+    public ServerLauncher(CloudDirectories directories,
+                          ServerProcessManager processManager,
+                          ServerPlayerRegistry playerRegistry,
+                          LaunchPipeline pipeline,
+                          PortAllocator portAllocator,
+                          ServerIndexAllocator indexAllocator,
+                          CdsArchiveManager cdsArchives,
+                          LaunchMetrics launchMetrics,
+                          LaunchSpecCache specs,
+                          CpuAffinityPolicy affinity,
+                          ServerStateJournal journal,
+                          long readyTimeoutMs) {
         this.directories = directories;
         this.processManager = processManager;
         this.playerRegistry = playerRegistry;
+        this.pipeline = pipeline;
+        this.portAllocator = portAllocator;
+        this.indexAllocator = indexAllocator;
+        this.readyTimeoutMs = readyTimeoutMs;
+        this.cdsArchives = cdsArchives;
+        this.launchMetrics = launchMetrics;
+        this.specs = specs;
+        this.affinity = affinity;
+        this.journal = journal;
+    }
+
+    /**
+     * Takes over the servers a previous cloud run left running and deletes all other tmp directories.
+     *
+     * @return the reattached servers; standby servers among them are not registered for players.
+     */
+    public List<ServerStateJournal.Entry> reattach() throws IOException {
+        long startedAt = System.nanoTime();
+        directories.ensureTmpExists();
+        List<ServerStateJournal.Entry> recorded = journal.load();
+        List<ServerStateJournal.Entry> reattached = new ArrayList<>();
+        for (ServerStateJournal.Entry entry : recorded) {
+            if (reattach(entry)) {
+                reattached.add(entry);
+            } else {
+                journal.remove(entry.getServerName());
+            }
+        }
+        deleteUnrecorded();
+        if (!recorded.isEmpty()) {
+            ConsoleUi.info("Reattached " + reattached.size() + " of " + recorded.size() + " servers in "
+                + elapsedMs(startedAt) + "ms.");
+        }
+        return reattached;
+    }
+
+    /**
+     * Restores the reservations of one recorded server if its process is still running.
+     */
+    private boolean reattach(ServerStateJournal.Entry entry) {
+        String serverName = entry.getServerName();
+        ProcessHandle process = entry.findProcess();
+        if (process == null || !Files.isDirectory(directories.getTmpServerDir(serverName))
+            || !processManager.adoptServer(serverName, process)) {
+            return false;
+        }
+        portAllocator.reserveExisting(serverName, entry.getPort());
+        indexAllocator.rebuild(Collections.singletonList(serverName));
+        affinity.restore(serverName, entry.getCores());
+        if (entry.isAdvertised()) {
+            playerRegistry.registerServer(serverName, readMaxPlayers(entry.getTemplateName()), entry.getPort(),
+                Instant.ofEpochMilli(entry.getStartedAt()));
+        }
+        return true;
+    }
+
+    /**
+     * Takes over a running server the cloud lost track of, reading its port from server.properties if needed.
+     *
+     * @param advertise whether the server is registered for players.
+     * @return true if the server is tracked again.
+     */
+    public boolean adoptServer(String serverName, String templateName, boolean advertise) {
+        ProcessHandle process = processManager.getProcess(serverName);
+        if (process == null) {
+            return false;
+        }
+        int port = portAllocator.getPort(serverName);
+        if (port <= 0) {
+            port = readPort(directories.getTmpServerDir(serverName));
+            if (port <= 0) {
+                return false;
+            }
+            portAllocator.reserveExisting(serverName, port);
+        }
+        indexAllocator.rebuild(Collections.singletonList(serverName));
+        journal.record(ServerStateJournal.Entry.of(serverName, templateName, port, process, advertise,
+            affinity.getAssignment(serverName)));
+        if (advertise) {
+            playerRegistry.registerServer(serverName, readMaxPlayers(templateName), port);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the max players of a template, or 0 until the first plugin update if it cannot be read.
+     */
+    private int readMaxPlayers(String templateName) {
+        try {
+            return specs.get(templateName).getMaxPlayers();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the port in a server's server.properties, or -1 if it cannot be read.
+     */
+    private static int readPort(Path serverDir) {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(serverDir.resolve("server.properties"))) {
+            properties.load(input);
+            return Integer.parseInt(properties.getProperty("server-port", "-1").trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Deletes tmp directories of servers that are neither recorded as running nor booting.
+     */
+    private void deleteUnrecorded() throws IOException {
+        for (String serverName : directories.listTmpServers()) {
+            if (!journal.contains(serverName) && !booting.contains(serverName)) {
+                directories.deleteTmpServer(serverName);
+                releaseServer(serverName);
+            }
+        }
     }
 
     /**
@@ -38,52 +194,49 @@ public class ServerLauncher {
      * @return number of servers created.
      */
     public int startAll() throws IOException {
-        // Reset tmp servers and recreate from templates.
-        directories.deleteTmp();
+        List<ServerLaunch> launches = launchAll();
+        int created = 0;
+        for (ServerLaunch launch : launches) {
+            try {
+                launch.spawned().join();
+                created++;
+            } catch (CompletionException e) {
+                ConsoleUi.error("Failed to start " + launch.getServerName() + ": " + rootMessage(e));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Submits the minimum number of servers for each template, keeping servers that already run.
+     *
+     * @return one launch per new server, each exposing spawn and readiness futures.
+     */
+    public List<ServerLaunch> launchAll() throws IOException {
         directories.ensureTmpExists();
+        // Running servers hold their indexes, so only the missing ones are started.
+        deleteUnrecorded();
         List<String> templates = directories.listTemplates();
         if (templates.isEmpty()) {
             throw new IOException("No templates found. Use 'template add' or 'setup' first.");
         }
 
-        int created = 0;
-        int nextPort = BASE_PORT;
-        Set<Integer> usedPorts = new HashSet<>();
+        List<ServerLaunch> launches = new ArrayList<>();
         for (String template : templates) {
-            TemplateConfig config = TemplateConfig.loadFrom(directories.getTemplateConfigFile(template));
-            int count = Math.max(0, config.getServerMin());
-            ConsoleUi.info("Starting " + count + " server(s) for template '" + template + "'.");
+            LaunchSpec spec = specs.get(template);
+            int count = Math.max(0, spec.getConfig().getServerMin());
+            int submitted = 0;
             for (int i = 1; i <= count; i++) {
-                String serverName = template + "-" + i;
-                if (Files.exists(directories.getTmpServerDir(serverName))) {
+                if (!indexAllocator.claim(template, i)) {
                     continue;
                 }
-                // Copy template contents and patch ports before starting.
-                directories.copyTemplateToServer(template, serverName);
-                int port = findNextFreePort(nextPort, usedPorts);
-                usedPorts.add(port);
-                nextPort = port + 1;
-                Path serverDir = directories.getTmpServerDir(serverName);
-                updatePorts(serverDir, port);
-                Path jarFile = findServerJar(serverDir);
-                int ramMb = config.getMaxRamMb();
-                if (ramMb <= 0) {
-                    throw new IOException("Invalid maxRamMb for template: " + template);
-                }
-                List<String> command = new ArrayList<>();
-                // Build JVM command for the server process.
-                command.add("java");
-                command.add("-Xms" + ramMb + "M");
-                command.add("-Xmx" + ramMb + "M");
-                command.add("-jar");
-                command.add(jarFile.getFileName().toString());
-                processManager.startServer(serverName, command, serverDir);
-                playerRegistry.registerServer(serverName, config.getMaxPlayers());
-                ConsoleUi.success("Started " + serverName + " on port " + port + " (" + ramMb + "MB RAM)");
-                created++;
+                launches.add(submit(plan(spec, template + "-" + i, true)));
+                submitted++;
             }
+            ConsoleUi.info("Starting " + submitted + " server(s) for template '" + template + "'"
+                + (submitted < count ? ", " + (count - submitted) + " already running." : "."));
         }
-        return created;
+        return launches;
     }
 
     /**
@@ -92,179 +245,401 @@ public class ServerLauncher {
      * @return the new server name.
      */
     public String startTemplateServer(String templateName) throws IOException {
+        return awaitSpawned(launchTemplateServer(templateName, true));
+    }
+
+    /**
+     * Starts a standby server that boots normally but is not registered for players.
+     *
+     * @return the spawned launch, whose ready future completes once the server booted,
+     *     or null if there is not enough free RAM.
+     */
+    public ServerLaunch startStandbyServer(String templateName) throws IOException {
+        ServerLaunch launch = launchTemplateServer(templateName, false);
+        awaitSpawned(launch);
+        return launch;
+    }
+
+    /**
+     * Submits one server instance for a template to the launch pipeline.
+     *
+     * @param advertise whether the server is registered for players right away.
+     * @return the launch, or null if there is not enough free RAM.
+     */
+    public ServerLaunch launchTemplateServer(String templateName, boolean advertise) throws IOException {
         if (!directories.templateExists(templateName)) {
             throw new IOException("Template not found: " + templateName);
         }
-        TemplateConfig config = TemplateConfig.loadFrom(directories.getTemplateConfigFile(templateName));
-        if (config.getMaxRamMb() <= 0) {
-            throw new IOException("Invalid maxRamMb for template: " + templateName);
-        }
+        LaunchSpec spec = specs.get(templateName);
         if (Cloud.getInstance().getCloudConfig().getOnlyStartServerIfFreeRam()) {
             long freeRam = Cloud.getInstance().getCloudConfig().isBasedOnOverallSystemMemory()
                     ? ResourceUtil.getFreeMemory()
                     : Cloud.getInstance().getVirtualResourceUtil().getFreeRam();
 
-            if (freeRam < config.getMaxRamMb()) {
+            if (freeRam < spec.getRamMb()) {
                 return null;
             }
         }
+        return submit(plan(spec, null, advertise));
+    }
 
-        // Determine next index and pick a free port.
-        List<String> existingServers = directories.listTmpServers();
-        Set<Integer> usedPorts = new HashSet<>();
-        int maxIndex = 0;
-        for (String serverName : existingServers) {
-            int port = readServerPort(serverName);
-            if (port > 0) {
-                usedPorts.add(port);
-            }
-            int index = parseServerIndex(templateName, serverName);
-            if (index > maxIndex) {
-                maxIndex = index;
-            }
+    /**
+     * Relaunches a crashed server in its existing directory, keeping its name and port.
+     *
+     * <p>Only files that differ from the template manifest are restored, so a crash
+     * costs a JVM restart instead of a full delete and copy.</p>
+     *
+     * @return the server name.
+     */
+    public String recycleServer(String templateName, String serverName) throws IOException {
+        if (!Files.isDirectory(directories.getTmpServerDir(serverName))) {
+            throw new IOException("Server directory not found: " + serverName);
         }
-        String serverName = templateName + "-" + (maxIndex + 1);
-        while (Files.exists(directories.getTmpServerDir(serverName))) {
-            maxIndex++;
-            serverName = templateName + "-" + (maxIndex + 1);
+        LaunchSpec spec = specs.get(templateName);
+        // Still reserved from the previous run, so this returns the same port.
+        int port = reservePort(serverName, spec.getConfig());
+        return awaitSpawned(submit(new ServerLaunch(spec, serverName, port, true)));
+    }
+
+    /**
+     * Picks a server name and reserves a port for it.
+     *
+     * @param serverName name with an already claimed index, or null to acquire the lowest free index.
+     */
+    private ServerLaunch plan(LaunchSpec spec, String serverName, boolean advertise) throws IOException {
+        String templateName = spec.getTemplateName();
+        if (serverName == null) {
+            serverName = templateName + "-" + indexAllocator.acquire(templateName);
         }
-        directories.copyTemplateToServer(templateName, serverName);
-        int port = findNextFreePort(BASE_PORT, usedPorts);
-        updatePorts(directories.getTmpServerDir(serverName), port);
-        Path jarFile = findServerJar(directories.getTmpServerDir(serverName));
-        List<String> command = new ArrayList<>();
-        // Start a single server instance for scale-up.
-        command.add("java");
-        command.add("-Xms" + config.getMaxRamMb() + "M");
-        command.add("-Xmx" + config.getMaxRamMb() + "M");
-        command.add("-jar");
-        command.add(jarFile.getFileName().toString());
-        processManager.startServer(serverName, command, directories.getTmpServerDir(serverName));
-        playerRegistry.registerServer(serverName, config.getMaxPlayers());
-        ConsoleUi.success("Started " + serverName + " on port " + port + " (" + config.getMaxRamMb() + "MB RAM)");
-        return serverName;
-    }
-
-    /**
-     * Finds the next free TCP port, skipping any already used ports.
-     */
-    private int findNextFreePort(int startPort, Set<Integer> usedPorts) throws IOException {
-        // Scan for a free TCP port, avoiding ones already assigned.
-        int port = Math.max(1, startPort);
-        while (port <= 65535) {
-            if (!usedPorts.contains(port) && isPortFree(port)) {
-                return port;
-            }
-            port++;
+        try {
+            long startedAt = System.nanoTime();
+            int port = reservePort(serverName, spec.getConfig());
+            launchMetrics.record(templateName, LaunchMetrics.PHASE_PORT, elapsedMs(startedAt));
+            return new ServerLaunch(spec, serverName, port, advertise);
+        } catch (IOException e) {
+            indexAllocator.release(serverName);
+            throw e;
         }
-        throw new IOException("No free ports available.");
     }
 
     /**
-     * Checks whether a port can be bound locally.
+     * Reserves a port from the template range, or the global range if the template has none.
+     */
+    private int reservePort(String serverName, TemplateConfig config) throws IOException {
+        return config.hasPortRange()
+            ? portAllocator.reserve(serverName, config.getPortRangeStart(), config.getPortRangeEnd())
+            : portAllocator.reserve(serverName);
+    }
+
+    /**
+     * Releases the resources reserved for a server that was stopped or crashed.
+     */
+    public void releaseServer(String serverName) {
+        portAllocator.release(serverName);
+        indexAllocator.release(serverName);
+        affinity.release(serverName);
+        journal.remove(serverName);
+        stopping.remove(serverName);
+    }
+
+    /**
+     * Records that a standby server was promoted and is now registered for players.
+     */
+    public void markAdvertised(String serverName) {
+        journal.markAdvertised(serverName);
+    }
+
+    /**
+     * Returns the port reserved for a server, or -1 if none.
      */
-    private boolean isPortFree(int port) {
-        try (ServerSocket socket = new ServerSocket(port)) {
-            socket.setReuseAddress(true);
-            return true;
+    public int getServerPort(String serverName) {
+        return portAllocator.getPort(serverName);
+    }
+
+    /**
+     * Returns true while a server is being launched and has not reported ready yet.
+     */
+    public boolean isBooting(String serverName) {
+        return booting.contains(serverName);
+    }
+
+    /**
+     * Marks a server as being stopped on purpose until it is released.
+     */
+    public void markStopping(String serverName) {
+        stopping.add(serverName);
+    }
+
+    /**
+     * Returns true while a server is being stopped on purpose, so its exit is no crash.
+     */
+    public boolean isStopping(String serverName) {
+        return stopping.contains(serverName);
+    }
+
+    /**
+     * Runs a planned launch through the pipeline stages.
+     */
+    private ServerLaunch submit(ServerLaunch launch) {
+        booting.add(launch.getServerName());
+        launch.ready().whenComplete((name, error) -> booting.remove(launch.getServerName()));
+        pipeline.admit()
+            .thenApplyAsync(ignored -> provision(launch), pipeline.io())
+            .thenApplyAsync(this::patch, pipeline.io())
+            .thenApplyAsync(this::spawn, pipeline.spawn())
+            .whenComplete((name, error) -> {
+                pipeline.release();
+                if (error != null) {
+                    releaseServer(launch.getServerName());
+                    launch.spawned().completeExceptionally(error);
+                    launch.ready().completeExceptionally(error);
+                    return;
+                }
+                launch.spawned().complete(name);
+                awaitReady(launch);
+            });
+        return launch;
+    }
+
+    /**
+     * Provision stage: copies or syncs the template into the tmp server directory.
+     */
+    private ServerLaunch provision(ServerLaunch launch) {
+        launchMetrics.record(launch.getTemplateName(), LaunchMetrics.PHASE_QUEUE, elapsedMs(launch.getCreatedAtNanos()));
+        try {
+            ProvisionResult provision = directories.copyTemplateToServer(launch.getSpec(), launch.getServerName());
+            launchMetrics.record(launch.getTemplateName(), LaunchMetrics.PHASE_MANIFEST, provision.getManifestMs());
+            launchMetrics.record(launch.getTemplateName(), LaunchMetrics.PHASE_COPY,
+                provision.getDurationMs() - provision.getManifestMs());
+            ConsoleUi.info(provision.describe());
+            launch.setServerDir(directories.getTmpServerDir(launch.getServerName()));
+            return launch;
         } catch (IOException e) {
-            return false;
+            throw new CompletionException(e);
         }
     }
 
     /**
-     * Updates server.properties with the assigned port values.
+     * Patch stage: writes the assigned port and locates the CDS archive of the spec's jar.
      */
-    private void updatePorts(Path serverDir, int port) throws IOException {
-        Path propertiesFile = serverDir.resolve("server.properties");
-        if (!Files.exists(propertiesFile)) {
-            ConsoleUi.warn("Missing server.properties in " + serverDir.getFileName());
-            return;
-        }
-        // Update server-port and query.port in server.properties.
-        List<String> lines = Files.readAllLines(propertiesFile, StandardCharsets.UTF_8);
-        List<String> updated = new ArrayList<>(lines.size() + 2);
-        boolean replacedQuery = false;
-        boolean replacedServer = false;
-        for (String line : lines) {
-            if (line.startsWith("query.port=")) {
-                updated.add("query.port=" + port);
-                replacedQuery = true;
-            } else if (line.startsWith("server-port=")) {
-                updated.add("server-port=" + port);
-                replacedServer = true;
-            } else {
-                updated.add(line);
+    private ServerLaunch patch(ServerLaunch launch) {
+        try {
+            long startedAt = System.nanoTime();
+            renderFiles(launch.getSpec(), launch.getServerDir(), launch.getServerName(), launch.getPort());
+            launchMetrics.record(launch.getTemplateName(), LaunchMetrics.PHASE_PATCH, elapsedMs(startedAt));
+            startedAt = System.nanoTime();
+            if (launch.getConfig().isAppCds()) {
+                String jarHash = cdsArchives.hashJar(launch.getTemplateName(), launch.getJarFile());
+                launch.setCdsArchive(cdsArchives.findArchive(launch.getTemplateName(), jarHash));
+                if (launch.getCdsArchive() == null) {
+                    // Boot without the archive this time; later launches pick it up.
+                    scheduleCdsTraining(launch.getSpec(), jarHash);
+                }
             }
+            launchMetrics.record(launch.getTemplateName(), LaunchMetrics.PHASE_JAR, elapsedMs(startedAt));
+            return launch;
+        } catch (IOException e) {
+            throw new CompletionException(e);
         }
-        if (!replacedQuery) {
-            updated.add("query.port=" + port);
+    }
+
+    /**
+     * Spawn stage: forks the server process and registers it.
+     */
+    private String spawn(ServerLaunch launch) {
+        int ramMb = launch.getSpec().getRamMb();
+        List<String> command = affinity.apply(launch.getServerName(), launch.getSpec().render(launch.getCdsArchive()));
+        // Created before the spawn so an old log of a recycled server is skipped.
+        launch.setReadinessProbe(new LogReadinessProbe(launch.getServerDir().resolve("logs").resolve("latest.log"),
+            launch.getSpec().getReadyPattern()));
+        launch.setSpawnedAtNanos(System.nanoTime());
+        processManager.startServer(launch.getServerName(), command, launch.getServerDir());
+        launchMetrics.record(launch.getTemplateName(), LaunchMetrics.PHASE_SPAWN, elapsedMs(launch.getSpawnedAtNanos()));
+        String cores = affinity.getAssignment(launch.getServerName());
+        ProcessHandle process = processManager.getProcess(launch.getServerName());
+        if (process != null) {
+            journal.record(ServerStateJournal.Entry.of(launch.getServerName(), launch.getTemplateName(),
+                launch.getPort(), process, launch.isAdvertised(), cores));
         }
-        if (!replacedServer) {
-            updated.add("server-port=" + port);
+        String resources = "(" + ramMb + "MB RAM" + (cores == null ? "" : ", cores " + cores) + ")";
+        if (!launch.isAdvertised()) {
+            ConsoleUi.success("Started standby " + launch.getServerName() + " on port " + launch.getPort() + " " + resources);
+            return launch.getServerName();
         }
-        Files.write(propertiesFile, updated, StandardCharsets.UTF_8);
+        playerRegistry.registerServer(launch.getServerName(), launch.getSpec().getMaxPlayers(), launch.getPort());
+        ConsoleUi.success("Started " + launch.getServerName() + " on port " + launch.getPort() + " " + resources);
+        return launch.getServerName();
     }
 
     /**
-     * Finds the server jar file inside a template/server directory.
+     * Ready stage: waits until the server logged its ready line, relaunching it on timeout.
      */
-    private Path findServerJar(Path serverDir) throws IOException {
-        // Pick the first jar in the directory as the server jar.
-        List<Path> jars = new ArrayList<>();
-        try (java.util.stream.Stream<Path> stream = Files.list(serverDir)) {
-            stream
-                .filter(path -> Files.isRegularFile(path))
-                .filter(path -> path.getFileName().toString().toLowerCase().endsWith(".jar"))
-                .sorted()
-                .forEach(jars::add);
-        }
-        if (jars.isEmpty()) {
-            throw new IOException("No server jar found in " + serverDir.getFileName());
+    private void awaitReady(ServerLaunch launch) {
+        long timeoutMs = launch.getConfig().getStartTimeoutMs() > 0
+            ? launch.getConfig().getStartTimeoutMs()
+            : readyTimeoutMs;
+        pipeline.awaitReady(launch.getReadinessProbe(), timeoutMs)
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    handleStartTimeout(launch, timeoutMs, error);
+                } else {
+                    recordBoot(launch);
+                    launch.ready().complete(launch.getServerName());
+                }
+            });
+    }
+
+    /**
+     * Kills a server that did not boot in time and relaunches it in place once it exited, up to a retry limit.
+     */
+    private void handleStartTimeout(ServerLaunch launch, long timeoutMs, Throwable error) {
+        String serverName = launch.getServerName();
+        ProcessHandle process = processManager.getProcess(serverName);
+        processManager.stopServer(serverName);
+        if (process == null) {
+            relaunch(launch, timeoutMs, error);
+            return;
         }
-        return jars.get(0);
+        // A JVM stuck in boot may ignore SIGTERM, and the retry needs its directory and port.
+        process.destroyForcibly();
+        process.onExit()
+            .orTimeout(START_KILL_WAIT_SECONDS, TimeUnit.SECONDS)
+            .whenComplete((exited, exitError) -> {
+                if (exitError != null) {
+                    giveUp(launch, serverName + " (pid " + process.pid() + ") did not exit after a failed boot, "
+                        + "not relaunching it.", error);
+                } else {
+                    relaunch(launch, timeoutMs, error);
+                }
+            });
     }
 
     /**
-     * Reads the assigned server port from server.properties.
+     * Relaunches a server that did not boot in time, or gives up after the last attempt.
      */
-    private int readServerPort(String serverName) {
-        // Read server-port from server.properties for existing servers.
-        Path propertiesFile = directories.getTmpServerDir(serverName).resolve("server.properties");
-        if (!Files.exists(propertiesFile)) {
-            return -1;
+    private void relaunch(ServerLaunch launch, long timeoutMs, Throwable error) {
+        String serverName = launch.getServerName();
+        if (launch.getAttempt() >= MAX_START_ATTEMPTS) {
+            giveUp(launch, serverName + " did not boot within " + timeoutMs + "ms after "
+                + launch.getAttempt() + " attempts, giving up.", error);
+            return;
         }
-        java.util.Properties props = new java.util.Properties();
-        try (java.io.InputStream input = Files.newInputStream(propertiesFile)) {
-            props.load(input);
+        ConsoleUi.warn(serverName + " did not boot within " + timeoutMs + "ms, relaunching it.");
+        ServerLaunch retry = new ServerLaunch(launch.getSpec(), serverName, launch.getPort(), launch.isAdvertised());
+        retry.setAttempt(launch.getAttempt() + 1);
+        submit(retry).ready().whenComplete((name, retryError) -> {
+            if (retryError != null) {
+                launch.ready().completeExceptionally(retryError);
+            } else {
+                launch.ready().complete(name);
+            }
+        });
+    }
+
+    /**
+     * Removes a server that failed to boot and fails its launch.
+     */
+    private void giveUp(ServerLaunch launch, String message, Throwable error) {
+        String serverName = launch.getServerName();
+        ConsoleUi.error(message);
+        playerRegistry.removeServer(serverName);
+        try {
+            directories.deleteTmpServer(serverName);
         } catch (IOException e) {
-            return -1;
+            ConsoleUi.error("Failed to delete " + serverName + ": " + e.getMessage());
         }
-        String value = props.getProperty("server-port");
-        if (value == null) {
-            return -1;
+        releaseServer(serverName);
+        launch.ready().completeExceptionally(error);
+    }
+
+    /**
+     * Records how long a server took from spawn until it reported ready.
+     */
+    private void recordBoot(ServerLaunch launch) {
+        long bootMs = elapsedMs(launch.getSpawnedAtNanos());
+        launchMetrics.record(launch.getTemplateName(), LaunchMetrics.PHASE_BOOT, bootMs);
+        if (!launch.getConfig().isAppCds()) {
+            ConsoleUi.info(launch.getServerName() + " ready in " + bootMs + "ms.");
+            return;
+        }
+        // Kept apart per archive state so the CDS gain is visible.
+        cdsArchives.recordBoot(launch.getTemplateName(), launch.getCdsArchive() != null, bootMs);
+        ConsoleUi.info(launch.getServerName() + " ready in " + bootMs + "ms"
+            + (launch.getCdsArchive() != null ? " with CDS" : " without CDS")
+            + " (" + cdsArchives.describeBoots(launch.getTemplateName()) + ")");
+    }
+
+    /**
+     * Queues a one-off training run that produces the CDS archive for a template's jar.
+     */
+    private void scheduleCdsTraining(LaunchSpec spec, String jarHash) {
+        String templateName = spec.getTemplateName();
+        cdsArchives.scheduleTraining(templateName, jarHash, () -> {
+            // Dot-prefixed so the training directory is never listed as a server.
+            String trainingName = ".cds-" + templateName;
+            try {
+                int port = reservePort(trainingName, spec.getConfig());
+                // Copied, not linked: the training boot writes to files that servers share with the template.
+                directories.copyTemplateToServer(spec, trainingName, false);
+                Path workDir = directories.getTmpServerDir(trainingName);
+                renderFiles(spec, workDir, trainingName, port);
+                cdsArchives.train(templateName, jarHash, workDir, workDir.resolve(spec.getJarName()),
+                    spec.getRamMb(), () -> NetworkUtil.isPortOpen(port), readyTimeoutMs);
+            } finally {
+                portAllocator.release(trainingName);
+                directories.deleteTmpServer(trainingName);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Blocks until a launch has spawned and returns its server name.
+     */
+    private String awaitSpawned(ServerLaunch launch) throws IOException {
+        if (launch == null) {
+            return null;
         }
         try {
-            return Integer.parseInt(value.trim());
-        } catch (NumberFormatException e) {
-            return -1;
+            return launch.spawned().join();
+        } catch (CompletionException e) {
+            throw new IOException(rootMessage(e), e);
         }
     }
 
     /**
-     * Parses the numeric suffix from a server name.
+     * Returns the milliseconds elapsed since a {@link System#nanoTime()} reading.
      */
-    private int parseServerIndex(String templateName, String serverName) {
-        // Extract numeric suffix from "<template>-<index>".
-        String prefix = templateName + "-";
-        if (!serverName.startsWith(prefix)) {
-            return 0;
+    private static long elapsedMs(long startedAtNanos) {
+        return (System.nanoTime() - startedAtNanos) / 1_000_000L;
+    }
+
+    /**
+     * Returns the message of the innermost cause of a pipeline failure.
+     */
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
         }
-        String suffix = serverName.substring(prefix.length());
-        try {
-            return Integer.parseInt(suffix);
-        } catch (NumberFormatException e) {
-            return 0;
+        return cause.getMessage();
+    }
+
+    /**
+     * Renders the spec's patch files into a server directory and sets the port in server.properties.
+     */
+    private void renderFiles(LaunchSpec spec, Path serverDir, String serverName, int port) throws IOException {
+        Map<String, String> values = ConfigRenderer.values(spec.getTemplateName(), serverName, port);
+        Map<String, String> ports = new LinkedHashMap<>();
+        ports.put("query.port", String.valueOf(port));
+        ports.put("server-port", String.valueOf(port));
+        for (String patchFile : spec.getPatchFiles()) {
+            Path file = serverDir.resolve(patchFile);
+            if ("server.properties".equals(patchFile)) {
+                ConfigRenderer.render(file, values, ports);
+            } else {
+                ConfigRenderer.render(file, values);
+            }
         }
     }
 }
@@ -43,20 +43,46 @@ public class ServerPlayerRegistry {
     private final Map<String, PlayerCounts> counts = new ConcurrentHashMap<>();
     private final Map<String, Long> startedAt = new ConcurrentHashMap<>();
     private final Map<String, Long> lastUpdatedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastHeartbeatAt = new ConcurrentHashMap<>();
     private final Map<String, String> displayNames = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ports = new ConcurrentHashMap<>();
 
     /**
      * Registers a newly started server and initializes its counts.
      */
     public void registerServer(String name, int maxPlayers) {
+        registerServer(name, maxPlayers, -1);
+    }
+
+    /**
+     * Registers a newly started server together with its assigned port.
+     */
+    public void registerServer(String name, int maxPlayers, int port) {
+        registerServer(name, maxPlayers, port, null);
+    }
+
+    /**
+     * Registers a server that has been running since the given time, e.g. after a cloud restart.
+     *
+     * @param startedAt start time, or null to keep a known start time or use now.
+     */
+    public void registerServer(String name, int maxPlayers, int port, Instant startedAt) {
         // Initialize entry for a newly launched server.
         if (name == null || name.trim().isEmpty()) {
             return;
         }
+        if (startedAt != null) {
+            this.startedAt.put(name, startedAt.toEpochMilli());
+        }
+        if (port > 0) {
+            ports.put(name, port);
+        }
         counts.put(name, new PlayerCounts(0, Math.max(0, maxPlayers)));
         displayNames.putIfAbsent(name, name);
-        startedAt.putIfAbsent(name, Instant.now().toEpochMilli());
+        this.startedAt.putIfAbsent(name, Instant.now().toEpochMilli());
         lastUpdatedAt.put(name, Instant.now().toEpochMilli());
+        // A new process has not reported yet.
+        lastHeartbeatAt.remove(name);
     }
 
     /**
@@ -82,7 +108,9 @@ public class ServerPlayerRegistry {
             displayNames.put(key, displayName.trim());
         }
         startedAt.putIfAbsent(key, Instant.now().toEpochMilli());
-        lastUpdatedAt.put(key, Instant.now().toEpochMilli());
+        long now = Instant.now().toEpochMilli();
+        lastUpdatedAt.put(key, now);
+        lastHeartbeatAt.put(key, now);
     }
 
     /**
@@ -124,7 +152,9 @@ public class ServerPlayerRegistry {
         counts.remove(name);
         startedAt.remove(name);
         lastUpdatedAt.remove(name);
+        lastHeartbeatAt.remove(name);
         displayNames.remove(name);
+        ports.remove(name);
     }
 
     /**
@@ -136,13 +166,17 @@ public class ServerPlayerRegistry {
             counts.clear();
             startedAt.clear();
             lastUpdatedAt.clear();
+            lastHeartbeatAt.clear();
             displayNames.clear();
+            ports.clear();
             return;
         }
         counts.keySet().retainAll(activeServers);
         startedAt.keySet().retainAll(activeServers);
         lastUpdatedAt.keySet().retainAll(activeServers);
+        lastHeartbeatAt.keySet().retainAll(activeServers);
         displayNames.keySet().retainAll(activeServers);
+        ports.keySet().retainAll(activeServers);
     }
 
     /**
@@ -175,6 +209,28 @@ public class ServerPlayerRegistry {
         return value == null ? null : Instant.ofEpochMilli(value);
     }
 
+    /**
+     * Returns when the server's plugin last reported, or null if it has not since the server started.
+     */
+    public Instant getLastHeartbeatAt(String name) {
+        if (name == null) {
+            return null;
+        }
+        Long value = lastHeartbeatAt.get(name);
+        return value == null ? null : Instant.ofEpochMilli(value);
+    }
+
+    /**
+     * Returns the port assigned to a server, or -1 if unknown.
+     */
+    public int getPort(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer value = ports.get(name);
+        return value == null ? -1 : value;
+    }
+
     /**
      * Returns the display name for a server if provided.
      */
@@ -12,6 +12,13 @@ public interface ServerProcessManager {
      */
     void startServer(String name, List<String> command, Path workingDir);
 
+    /**
+     * Takes over a server process left running by a previous cloud run.
+     *
+     * @return true if the server is managed again.
+     */
+    boolean adoptServer(String name, ProcessHandle process);
+
     /**
      * Stops a server process by name.
      */
@@ -26,4 +33,27 @@ public interface ServerProcessManager {
      * Attaches to an interactive server process.
      */
     void attachServer(String name);
+
+    /**
+     * Sends a console command line to a running server.
+     *
+     * @return true if the command was delivered.
+     */
+    boolean sendCommand(String name, String command);
+
+    /**
+     * Returns the handle of a running server's JVM process, or null if it is not running.
+     */
+    ProcessHandle getProcess(String name);
+
+    /**
+     * Returns the captured console output of a running server, or null if it is not captured.
+     */
+    ConsoleBuffer getConsole(String name);
+
+    /**
+     * Registers the listener told about servers that exit without {@link #stopServer(String)},
+     * which includes servers told to stop through their console.
+     */
+    void setExitListener(ServerExitListener listener);
 }
@@ -0,0 +1,314 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Compares server processes, tmp directories and the player registry and fixes what does not match.
+ *
+ * <p>Each sweep reads the three listings once and classifies every name that is not
+ * booting or being stopped. A directory without a process is deleted, a process without
+ * a directory is killed, a running server the cloud does not track is adopted, and a
+ * registry entry without a server is removed. Processes whose name is not
+ * {@code <template>-<index>} of an existing template are never touched, so foreign screen
+ * sessions are safe. Periodic sweeps act only on orphans seen in two sweeps in a row,
+ * which keeps them out of the way of launches and crash handling in progress.</p>
+ */
+public class ServerReconciler {
+    private final CloudDirectories directories;
+    private final ServerProcessManager processManager;
+    private final ServerPlayerRegistry playerRegistry;
+    private final ServerLauncher launcher;
+    private final ServerStandbyPool standbyPool;
+    private final long intervalMs;
+    private final boolean fix;
+    private final Map<String, Orphan> suspects = new HashMap<>();
+    private final Set<String> reported = new HashSet<>();
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Creates a reconciler.
+     *
+     * @param intervalMs time between two periodic sweeps, 0 to sweep only on demand.
+     * @param fix whether orphans are fixed, or only reported.
+     */
+    public ServerReconciler(CloudDirectories directories,
+                            ServerProcessManager processManager,
+                            ServerPlayerRegistry playerRegistry,
+                            ServerLauncher launcher,
+                            ServerStandbyPool standbyPool,
+                            long intervalMs,
+                            boolean fix) {
+        this.directories = directories;
+        this.processManager = processManager;
+        this.playerRegistry = playerRegistry;
+        this.launcher = launcher;
+        this.standbyPool = standbyPool;
+        this.intervalMs = intervalMs;
+        this.fix = fix;
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Starts the periodic sweep.
+     */
+    public void start() {
+        if (intervalMs <= 0) {
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::reconcileSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduled sweep immediately.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void reconcileSafely() {
+        try {
+            for (Change change : reconcile(false)) {
+                // Report-only findings are logged once, not on every sweep.
+                if (change.getOutcome() == Outcome.PENDING
+                    || (change.getOutcome() == Outcome.REPORTED && !reported.add(change.getServerName()))) {
+                    continue;
+                }
+                ConsoleUi.warn("Reconcile: " + change.describe());
+            }
+        } catch (IOException | RuntimeException e) {
+            ConsoleUi.error("Reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one sweep over processes, tmp directories and the registry.
+     *
+     * @param force whether orphans are handled on first sight instead of on the second sweep.
+     * @return every orphan found, with what was done about it.
+     */
+    public synchronized List<Change> reconcile(boolean force) throws IOException {
+        Set<String> processes = new HashSet<>(processManager.listServers());
+        Set<String> serverDirs = new HashSet<>(directories.listTmpServers());
+        Set<String> registered = playerRegistry.getServerNames();
+        List<String> templates = directories.listTemplates();
+        Set<String> names = new TreeSet<>(processes);
+        names.addAll(serverDirs);
+        names.addAll(registered);
+
+        Map<String, Orphan> seen = new HashMap<>();
+        List<Change> changes = new ArrayList<>();
+        for (String serverName : names) {
+            if (launcher.isBooting(serverName) || launcher.isStopping(serverName)) {
+                continue;
+            }
+            String template = templateOf(serverName, templates);
+            Orphan orphan = classify(serverName, template, processes.contains(serverName),
+                serverDirs.contains(serverName), registered.contains(serverName));
+            if (orphan == null) {
+                continue;
+            }
+            seen.put(serverName, orphan);
+            Outcome outcome;
+            if (!force && orphan != suspects.get(serverName)) {
+                outcome = Outcome.PENDING;
+            } else if (!fix) {
+                outcome = Outcome.REPORTED;
+            } else {
+                outcome = apply(serverName, template, orphan) ? Outcome.FIXED : Outcome.FAILED;
+            }
+            changes.add(new Change(serverName, orphan, outcome));
+        }
+        suspects.clear();
+        suspects.putAll(seen);
+        reported.retainAll(seen.keySet());
+        return changes;
+    }
+
+    /**
+     * Returns what is wrong with a server, or null if its process, directory and registry entry agree.
+     *
+     * @param template the server's template, or null if the name belongs to no template.
+     */
+    private Orphan classify(String serverName, String template, boolean process, boolean serverDir, boolean registered) {
+        if (process && !serverDir) {
+            // Only servers of the cloud are killed, never other screen sessions.
+            return template == null ? null : Orphan.PROCESS;
+        }
+        if (serverDir && !process) {
+            return Orphan.DIRECTORY;
+        }
+        if (process) {
+            boolean tracked = launcher.getServerPort(serverName) > 0
+                && (registered || standbyPool.isStandby(serverName));
+            return tracked || template == null ? null : Orphan.UNTRACKED;
+        }
+        return registered ? Orphan.REGISTRY : null;
+    }
+
+    /**
+     * Applies the policy of an orphan kind to one server.
+     *
+     * @return true if the server is consistent again.
+     */
+    private boolean apply(String serverName, String template, Orphan orphan) {
+        switch (orphan) {
+            case DIRECTORY:
+                playerRegistry.removeServer(serverName);
+                try {
+                    directories.deleteTmpServer(serverName);
+                } catch (IOException e) {
+                    ConsoleUi.error("Failed to delete " + serverName + ": " + e.getMessage());
+                    return false;
+                }
+                launcher.releaseServer(serverName);
+                return true;
+            case PROCESS:
+                ProcessHandle process = processManager.getProcess(serverName);
+                // Stopped through the manager first, so the kill is not reported as a crash.
+                processManager.stopServer(serverName);
+                if (process != null) {
+                    process.destroyForcibly();
+                }
+                playerRegistry.removeServer(serverName);
+                launcher.releaseServer(serverName);
+                return true;
+            case UNTRACKED:
+                return launcher.adoptServer(serverName, template, !standbyPool.isStandby(serverName));
+            case REGISTRY:
+                playerRegistry.removeServer(serverName);
+                launcher.releaseServer(serverName);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the template of a {@code <template>-<index>} server name, or null if there is none.
+     */
+    public static String templateOf(String serverName, List<String> templates) {
+        int dash = serverName.lastIndexOf('-');
+        if (dash <= 0 || dash == serverName.length() - 1) {
+            return null;
+        }
+        for (int i = dash + 1; i < serverName.length(); i++) {
+            if (!Character.isDigit(serverName.charAt(i))) {
+                return null;
+            }
+        }
+        String template = serverName.substring(0, dash);
+        return templates.contains(template) ? template : null;
+    }
+
+    /**
+     * Kinds of mismatch between processes, directories and the registry.
+     */
+    public enum Orphan {
+        DIRECTORY("directory without process", "deleted directory"),
+        PROCESS("process without directory", "killed process"),
+        UNTRACKED("running server not tracked by the cloud", "adopted server"),
+        REGISTRY("registry entry without server", "removed registry entry");
+
+        private final String description;
+        private final String action;
+
+        Orphan(String description, String action) {
+            this.description = description;
+            this.action = action;
+        }
+
+        /**
+         * Returns what is wrong.
+         */
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * Returns what the policy does about it.
+         */
+        public String getAction() {
+            return action;
+        }
+    }
+
+    /**
+     * What a sweep did about an orphan.
+     */
+    public enum Outcome {
+        FIXED,
+        FAILED,
+        REPORTED,
+        PENDING
+    }
+
+    /**
+     * One orphan found by a sweep.
+     */
+    public static class Change {
+        private final String serverName;
+        private final Orphan orphan;
+        private final Outcome outcome;
+
+        private Change(String serverName, Orphan orphan, Outcome outcome) {
+            this.serverName = serverName;
+            this.orphan = orphan;
+            this.outcome = outcome;
+        }
+
+        /**
+         * Returns the server name.
+         */
+        public String getServerName() {
+            return serverName;
+        }
+
+        /**
+         * Returns the kind of mismatch.
+         */
+        public Orphan getOrphan() {
+            return orphan;
+        }
+
+        /**
+         * Returns what was done about it.
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Returns a one-line description such as "lobby-3: directory without process, deleted directory".
+         */
+        public String describe() {
+            String result;
+            switch (outcome) {
+                case FIXED:
+                    result = orphan.getAction();
+                    break;
+                case FAILED:
+                    result = orphan.getAction() + " failed";
+                    break;
+                case REPORTED:
+                    result = "left as is (orphanPolicy: report)";
+                    break;
+                default:
+                    result = "handled if still present on the next sweep";
+                    break;
+            }
+            return serverName + ": " + orphan.getDescription() + ", " + result;
+        }
+    }
+}
@@ -2,104 +2,246 @@ package com.duelistic.system;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.duelistic.ui.ConsoleUi;
 
 /**
- * Stops all running servers and cleans the tmp directory.
+ * Stops running servers gracefully and cleans the tmp directory.
+ *
+ * <p>A server is first asked to {@code stop} through its console so it saves its worlds.
+ * If it has not exited after the stop timeout it gets SIGTERM, and after the terminate
+ * timeout SIGKILL. Its directory is deleted as soon as the process is gone. Waiting is
+ * done on the process exit futures, so no thread sleeps or blocks per server.</p>
+ *
+ * <p>{@link #stopAll()} runs a fixed number of these sequences side by side and kills
+ * whatever is still running when the fleet deadline passes.</p>
  */
 public class ServerShutdown {
+    private static final String STOP_COMMAND = "stop";
+    private static final long KILL_TIMEOUT_MS = 5000;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
     private final CloudDirectories directories;
     private final ServerProcessManager processManager;
+    private final ServerLauncher launcher;
+    private final long stopTimeoutMs;
+    private final long terminateTimeoutMs;
+    private final int parallelism;
+    private final long deadlineMs;
+
     /**
      * Creates a shutdown helper for managed servers.
+     *
+     * @param stopTimeoutMs time a server gets to exit after the stop command.
+     * @param terminateTimeoutMs time a server gets to exit after SIGTERM before it is killed.
+     * @param parallelism servers stopped at the same time by {@link #stopAll()}.
+     * @param deadlineMs time after which {@link #stopAll()} kills the remaining servers.
      */
-    public ServerShutdown(CloudDirectories directories, ServerProcessManager processManager) {
+    public ServerShutdown(CloudDirectories directories,
+                          ServerProcessManager processManager,
+                          ServerLauncher launcher,
+                          long stopTimeoutMs,
+                          long terminateTimeoutMs,
+                          int parallelism,
+                          long deadlineMs) {
         this.directories = directories;
         this.processManager = processManager;
+        this.launcher = launcher;
+        this.stopTimeoutMs = stopTimeoutMs;
+        this.terminateTimeoutMs = terminateTimeoutMs;
+        this.parallelism = Math.max(1, parallelism);
+        this.deadlineMs = deadlineMs;
     }
 
     /**
-     * Stops all tmp servers and deletes their files.
+     * Returns the longest time {@link #stopAll()} takes before every server is gone.
+     */
+    public long getDeadlineMs() {
+        return deadlineMs + KILL_TIMEOUT_MS;
+    }
+
+    /**
+     * Stops all tmp servers in parallel and deletes their files.
+     *
+     * <p>Servers still running at the deadline skip the remaining grace periods and are
+     * killed right away, as are servers whose turn only comes after it.</p>
      *
      * @return number of servers that were present.
      */
     public CompletableFuture<Integer> stopAll() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<String> servers = directories.listTmpServers();
-                if (servers.isEmpty()) {
-                    ConsoleUi.info("No servers to stop.");
-                    return 0;
-                }
-
-                for (String server : servers) {
-                    processManager.stopServer(server);
+        List<String> servers;
+        try {
+            servers = directories.listTmpServers();
+        } catch (IOException e) {
+            CompletableFuture<Integer> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        if (servers.isEmpty()) {
+            ConsoleUi.info("No servers to stop.");
+            return CompletableFuture.completedFuture(0);
+        }
+        ConsoleUi.info("Stopping " + servers.size() + " servers...");
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Queue<String> queue = new ConcurrentLinkedQueue<>(servers);
+        Progress progress = new Progress(servers.size());
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(parallelism, servers.size())];
+        for (int i = 0; i < lanes.length; i++) {
+            // Each lane starts on the common pool, so console commands are sent in parallel.
+            lanes[i] = CompletableFuture.completedFuture(null)
+                .thenComposeAsync(ignored -> runLane(queue, deadline, progress));
+        }
+        return CompletableFuture.allOf(lanes)
+            .handle((ignored, error) -> {
+                try {
+                    // Removes whatever a failed per-server delete left behind.
+                    directories.deleteTmp();
+                    return servers.size();
+                } catch (IOException e) {
+                    ConsoleUi.error("Failed to delete tmp directory: " + e.getMessage());
+                    throw new CompletionException(e);
                 }
+            });
+    }
 
-                ScheduledExecutorService scheduler =
-                        Executors.newSingleThreadScheduledExecutor();
 
-                CompletableFuture<Integer> result = new CompletableFuture<>();
+    /**
+     * Stops single tmp server
+     * @param serverName
+     * @return if stop was successful
+     */
+    public CompletableFuture<Boolean> stop(String serverName) {
+        try {
+            if (!directories.listTmpServers().contains(serverName)) {
+                return CompletableFuture.completedFuture(false);
+            }
+        } catch (IOException e) {
+            CompletableFuture<Boolean> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return stopAndDelete(serverName, NO_DEADLINE).thenApply(ignored -> true);
+    }
 
-                scheduler.schedule(() -> {
-                    try {
-                        directories.deleteTmp();
-                        result.complete(servers.size());
-                    } catch (IOException e) {
-                        ConsoleUi.error("Failed to delete tmp directory: " + e.getMessage());
-                        result.completeExceptionally(e);
-                    } finally {
-                        scheduler.shutdown();
-                    }
-                }, 5, TimeUnit.SECONDS);
+    /**
+     * Stops queued servers one after another until the queue is empty.
+     */
+    private CompletableFuture<Void> runLane(Queue<String> queue, long deadline, Progress progress) {
+        String serverName = queue.poll();
+        if (serverName == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return stopAndDelete(serverName, deadline)
+            // Failures are already reported; the lane moves on to the next server.
+            .handle((ignored, error) -> {
+                progress.completed();
+                return null;
+            })
+            .thenCompose(ignored -> runLane(queue, deadline, progress));
+    }
 
-                return result.join();
+    /**
+     * Stops the server process and deletes its directory once it exited.
+     */
+    private CompletableFuture<Void> stopAndDelete(String serverName, long deadline) {
+        // Keeps crash handling away from the exit that is about to happen.
+        launcher.markStopping(serverName);
+        return stopProcess(serverName, deadline).thenRunAsync(() -> {
+            try {
+                directories.deleteTmpServer(serverName);
             } catch (IOException e) {
+                ConsoleUi.error("Failed to delete tmp directory: " + e.getMessage());
                 throw new CompletionException(e);
+            } finally {
+                // Names and ports are reusable only once the old directory is gone.
+                launcher.releaseServer(serverName);
             }
         });
     }
 
-
     /**
-     * Stops single tmp server
-     * @param serverName
-     * @return if stop was successful
+     * Runs the stop, SIGTERM, SIGKILL sequence until the server process has exited.
+     *
+     * @param deadline {@link System#nanoTime()} after which the server is killed, or NO_DEADLINE.
      */
-    public CompletableFuture<Boolean> stop(String serverName) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<String> servers = directories.listTmpServers();
-                if (!servers.contains(serverName)) {
-                    return false;
+    private CompletableFuture<Void> stopProcess(String serverName, long deadline) {
+        ProcessHandle process = processManager.getProcess(serverName);
+        if (process == null || !process.isAlive()) {
+            processManager.stopServer(serverName);
+            return CompletableFuture.completedFuture(null);
+        }
+        long stopWaitMs = Math.min(stopTimeoutMs, remainingMs(deadline));
+        CompletableFuture<Boolean> stopped = stopWaitMs > 0 && processManager.sendCommand(serverName, STOP_COMMAND)
+            ? awaitExit(process, stopWaitMs)
+            : CompletableFuture.completedFuture(false);
+        return stopped
+            .thenCompose(exited -> {
+                long terminateWaitMs = Math.min(terminateTimeoutMs, remainingMs(deadline));
+                if (exited || terminateWaitMs <= 0) {
+                    return CompletableFuture.completedFuture(exited);
                 }
+                ConsoleUi.warn(serverName + " did not stop within " + stopWaitMs + "ms, terminating it.");
+                process.destroy();
+                return awaitExit(process, terminateWaitMs);
+            })
+            .thenCompose(exited -> {
+                if (exited) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                ConsoleUi.warn(serverName + " is still running, killing it.");
+                process.destroyForcibly();
+                return awaitExit(process, KILL_TIMEOUT_MS);
+            })
+            .thenAccept(exited -> {
+                if (!exited) {
+                    ConsoleUi.error("Failed to kill " + serverName + " (pid " + process.pid() + ").");
+                }
+            });
+    }
 
-                processManager.stopServer(serverName);
-
-                ScheduledExecutorService scheduler =
-                        Executors.newSingleThreadScheduledExecutor();
-
-                CompletableFuture<Boolean> result = new CompletableFuture<>();
+    /**
+     * Returns the milliseconds left until the deadline, never negative.
+     */
+    private static long remainingMs(long deadline) {
+        if (deadline == NO_DEADLINE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
 
-                scheduler.schedule(() -> {
-                    try {
-                        directories.deleteTmpServer(serverName);
-                        result.complete(true);
-                    } catch (IOException e) {
-                        ConsoleUi.error("Failed to delete tmp directory: " + e.getMessage());
-                        result.completeExceptionally(e);
-                    } finally {
-                        scheduler.shutdown();
-                    }
-                }, 5, TimeUnit.SECONDS);
+    /**
+     * Completes with true when the process exits, or with false once the timeout passed.
+     */
+    private static CompletableFuture<Boolean> awaitExit(ProcessHandle process, long timeoutMs) {
+        return process.onExit()
+            .thenApply(exited -> true)
+            .completeOnTimeout(false, timeoutMs, TimeUnit.MILLISECONDS);
+    }
 
-                return result.join();
-            } catch (IOException e) {
-                throw new CompletionException(e);
+    /**
+     * Counts stopped servers of a fleet shutdown and reports them at most once per second.
+     */
+    private static class Progress {
+        private final int total;
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicLong lastReport = new AtomicLong(System.nanoTime());
+
+        private Progress(int total) {
+            this.total = total;
+        }
+
+        private void completed() {
+            int count = done.incrementAndGet();
+            long now = System.nanoTime();
+            long last = lastReport.get();
+            if (count == total
+                || (now - last >= PROGRESS_INTERVAL_NANOS && lastReport.compareAndSet(last, now))) {
+                ConsoleUi.info("Stopped " + count + "/" + total + " servers.");
             }
-        });
+        }
     }
-
 }
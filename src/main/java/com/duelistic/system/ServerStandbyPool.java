@@ -0,0 +1,210 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Keeps pre-booted standby servers per template that can be promoted instantly.
+ *
+ * <p>Standby servers are provisioned and started like regular servers but are not
+ * registered for players and are hidden from status listings until promoted.</p>
+ */
+public class ServerStandbyPool {
+    private final CloudDirectories directories;
+    private final ServerLauncher launcher;
+    private final ServerProcessManager processManager;
+    private final ServerPlayerRegistry playerRegistry;
+    private final LaunchSpecCache specs;
+    private final Map<String, Deque<String>> standby = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> booting = new ConcurrentHashMap<>();
+    private final Set<String> refilling = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    /**
+     * Creates a standby pool backed by the launcher.
+     */
+    public ServerStandbyPool(CloudDirectories directories,
+                             ServerLauncher launcher,
+                             ServerProcessManager processManager,
+                             ServerPlayerRegistry playerRegistry,
+                             LaunchSpecCache specs) {
+        this.directories = directories;
+        this.launcher = launcher;
+        this.processManager = processManager;
+        this.playerRegistry = playerRegistry;
+        this.specs = specs;
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * Returns true if the server is currently held or booting as an unadvertised standby.
+     */
+    public boolean isStandby(String serverName) {
+        if (serverName == null) {
+            return false;
+        }
+        for (Deque<String> servers : standby.values()) {
+            if (servers.contains(serverName)) {
+                return true;
+            }
+        }
+        for (Set<String> servers : booting.values()) {
+            if (servers.contains(serverName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Promotes the oldest standby server of a template and refills the pool in the background.
+     *
+     * @return the promoted server name, or null if no standby server is available.
+     */
+    public String promote(String template) {
+        Deque<String> servers = standby.get(template);
+        if (servers == null) {
+            return null;
+        }
+        String serverName = servers.pollFirst();
+        if (serverName == null) {
+            return null;
+        }
+        int maxPlayers = 0;
+        try {
+            maxPlayers = specs.get(template).getConfig().getMaxPlayers();
+        } catch (IOException e) {
+            // Counts will be corrected by the first plugin update.
+        }
+        playerRegistry.registerServer(serverName, maxPlayers, launcher.getServerPort(serverName));
+        launcher.markAdvertised(serverName);
+        ConsoleUi.success("Promoted standby " + serverName + " for template '" + template + "'.");
+        refill(template);
+        return serverName;
+    }
+
+    /**
+     * Schedules a background refill for every template with a standby target.
+     */
+    public void refillAll() {
+        try {
+            for (String template : directories.listTemplates()) {
+                refill(template);
+            }
+        } catch (IOException e) {
+            ConsoleUi.error("Standby refill failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Schedules a background refill for a single template.
+     */
+    public void refill(String template) {
+        // Coalesce refill requests so a template is never topped up twice at once.
+        if (executor.isShutdown() || !refilling.add(template)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                refillNow(template);
+            } finally {
+                refilling.remove(template);
+            }
+        });
+    }
+
+    /**
+     * Takes back a standby server that kept running while the cloud restarted.
+     */
+    public void adopt(String template, String serverName) {
+        standby.computeIfAbsent(template, key -> new ConcurrentLinkedDeque<>()).addLast(serverName);
+    }
+
+    /**
+     * Stops the refill worker.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts standby servers until booted and booting ones reach the template's target.
+     *
+     * <p>A server joins the pool only once it reported ready, so a promoted server
+     * never has to boot in front of players.</p>
+     */
+    private void refillNow(String template) {
+        TemplateConfig config;
+        try {
+            config = specs.get(template).getConfig();
+        } catch (IOException e) {
+            return;
+        }
+        Deque<String> servers = standby.computeIfAbsent(template, key -> new ConcurrentLinkedDeque<>());
+        Set<String> pending = booting.computeIfAbsent(template, key -> ConcurrentHashMap.newKeySet());
+        if (config.getWarmStandby() <= 0 && servers.isEmpty()) {
+            return;
+        }
+        pruneDead(servers);
+        while (servers.size() + pending.size() < config.getWarmStandby()) {
+            try {
+                ServerLaunch launch = launcher.startStandbyServer(template);
+                if (launch == null) {
+                    ConsoleUi.warn("Not enough free RAM to refill standby pool for '" + template + "'.");
+                    return;
+                }
+                String serverName = launch.getServerName();
+                pending.add(serverName);
+                launch.ready().whenComplete((name, error) -> {
+                    // Added before it leaves the booting set, so it is never untracked in between.
+                    if (error == null) {
+                        servers.addLast(serverName);
+                    }
+                    pending.remove(serverName);
+                });
+            } catch (IOException e) {
+                ConsoleUi.error("Failed to start standby server for '" + template + "': " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops standby servers whose process or directory disappeared.
+     */
+    private void pruneDead(Deque<String> servers) {
+        if (servers.isEmpty()) {
+            return;
+        }
+        Set<String> running = new HashSet<>(processManager.listServers());
+        List<String> dead = new ArrayList<>();
+        for (String serverName : servers) {
+            if (!running.contains(serverName) || !Files.exists(directories.getTmpServerDir(serverName))) {
+                dead.add(serverName);
+            }
+        }
+        for (String serverName : dead) {
+            servers.remove(serverName);
+            ConsoleUi.warn("Standby server " + serverName + " is gone, replacing it.");
+            processManager.stopServer(serverName);
+            try {
+                directories.deleteTmpServer(serverName);
+            } catch (IOException e) {
+                ConsoleUi.error("Failed to delete standby server " + serverName + ": " + e.getMessage());
+            }
+            launcher.releaseServer(serverName);
+        }
+    }
+}
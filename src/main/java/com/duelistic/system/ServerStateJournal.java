@@ -0,0 +1,245 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.duelistic.ui.ConsoleUi;
+
+/**
+ * Persists the running servers so a restarted cloud can take them over.
+ *
+ * <p>The journal holds one tab-separated line per server: name, template, port, pid,
+ * process start time, cloud start time, advertised flag and pinned cores. It is
+ * rewritten on every change through a temporary file and an atomic rename, so a
+ * crashed cloud always leaves either the old or the new state behind.</p>
+ */
+public class ServerStateJournal {
+    private static final String HEADER = "# name\ttemplate\tport\tpid\tprocessStartedAt\tstartedAt\tadvertised\tcores";
+    private static final int FIELDS = 8;
+    private final Path file;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * Creates a journal stored in the given file.
+     */
+    public ServerStateJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the journal left by the previous run, skipping malformed lines.
+     *
+     * @return the recorded servers, sorted by name.
+     */
+    public synchronized List<Entry> load() {
+        entries.clear();
+        if (!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                Entry entry = Entry.parse(line);
+                if (entry == null) {
+                    ConsoleUi.warn("Ignoring malformed server state line: " + line);
+                    continue;
+                }
+                entries.put(entry.getServerName(), entry);
+            }
+        } catch (IOException e) {
+            ConsoleUi.error("Failed to read server state: " + e.getMessage());
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Records a server, replacing a previous entry with the same name.
+     */
+    public synchronized void record(Entry entry) {
+        entries.put(entry.getServerName(), entry);
+        write();
+    }
+
+    /**
+     * Marks a recorded standby server as advertised to players.
+     */
+    public synchronized void markAdvertised(String serverName) {
+        Entry entry = entries.get(serverName);
+        if (entry != null && !entry.isAdvertised()) {
+            entries.put(serverName, new Entry(entry.serverName, entry.templateName, entry.port, entry.pid,
+                entry.processStartedAt, entry.startedAt, true, entry.cores));
+            write();
+        }
+    }
+
+    /**
+     * Forgets a server that stopped.
+     */
+    public synchronized void remove(String serverName) {
+        if (entries.remove(serverName) != null) {
+            write();
+        }
+    }
+
+    /**
+     * Returns true if a server is recorded as running.
+     */
+    public synchronized boolean contains(String serverName) {
+        return entries.containsKey(serverName);
+    }
+
+    private void write() {
+        StringBuilder builder = new StringBuilder(HEADER).append('\n');
+        for (Entry entry : entries.values()) {
+            builder.append(entry.format()).append('\n');
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, builder.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            ConsoleUi.error("Failed to write server state: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One running server as recorded in the journal.
+     */
+    public static class Entry {
+        private final String serverName;
+        private final String templateName;
+        private final int port;
+        private final long pid;
+        private final long processStartedAt;
+        private final long startedAt;
+        private final boolean advertised;
+        private final String cores;
+
+        /**
+         * Creates an entry.
+         *
+         * @param processStartedAt start time of the process in epoch millis, or -1 if unknown.
+         * @param startedAt time the cloud started the server in epoch millis.
+         * @param cores cores the server is pinned to, or null if it is not pinned.
+         */
+        public Entry(String serverName, String templateName, int port, long pid, long processStartedAt,
+                     long startedAt, boolean advertised, String cores) {
+            this.serverName = serverName;
+            this.templateName = templateName;
+            this.port = port;
+            this.pid = pid;
+            this.processStartedAt = processStartedAt;
+            this.startedAt = startedAt;
+            this.advertised = advertised;
+            this.cores = cores == null || cores.isEmpty() ? null : cores;
+        }
+
+        /**
+         * Creates an entry for a running process, reading its start time from the OS.
+         */
+        public static Entry of(String serverName, String templateName, int port, ProcessHandle process,
+                               boolean advertised, String cores) {
+            long processStartedAt = process.info().startInstant().map(Instant::toEpochMilli).orElse(-1L);
+            return new Entry(serverName, templateName, port, process.pid(), processStartedAt,
+                System.currentTimeMillis(), advertised, cores);
+        }
+
+        /**
+         * Returns the recorded process if it is still alive and was not replaced by another one.
+         */
+        public ProcessHandle findProcess() {
+            ProcessHandle process = ProcessHandle.of(pid).orElse(null);
+            if (process == null || !process.isAlive()) {
+                return null;
+            }
+            // A reused pid belongs to a process with another start time.
+            long actualStartedAt = process.info().startInstant().map(Instant::toEpochMilli).orElse(-1L);
+            if (processStartedAt >= 0 && actualStartedAt >= 0 && actualStartedAt != processStartedAt) {
+                return null;
+            }
+            return process;
+        }
+
+        /**
+         * Returns the server name.
+         */
+        public String getServerName() {
+            return serverName;
+        }
+
+        /**
+         * Returns the template the server was started from.
+         */
+        public String getTemplateName() {
+            return templateName;
+        }
+
+        /**
+         * Returns the server port.
+         */
+        public int getPort() {
+            return port;
+        }
+
+        /**
+         * Returns the recorded pid.
+         */
+        public long getPid() {
+            return pid;
+        }
+
+        /**
+         * Returns when the cloud started the server, in epoch millis.
+         */
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        /**
+         * Returns true if the server is registered for players, false for standby servers.
+         */
+        public boolean isAdvertised() {
+            return advertised;
+        }
+
+        /**
+         * Returns the cores the server is pinned to, or null if it is not pinned.
+         */
+        public String getCores() {
+            return cores;
+        }
+
+        private String format() {
+            return serverName + '\t' + templateName + '\t' + port + '\t' + pid + '\t' + processStartedAt
+                + '\t' + startedAt + '\t' + advertised + '\t' + (cores == null ? "-" : cores);
+        }
+
+        /**
+         * Parses a journal line, or returns null if it is malformed.
+         */
+        static Entry parse(String line) {
+            String[] parts = line.split("\t");
+            if (parts.length != FIELDS || parts[0].isEmpty() || parts[1].isEmpty()) {
+                return null;
+            }
+            try {
+                return new Entry(parts[0], parts[1], Integer.parseInt(parts[2]), Long.parseLong(parts[3]),
+                    Long.parseLong(parts[4]), Long.parseLong(parts[5]), Boolean.parseBoolean(parts[6]),
+                    "-".equals(parts[7]) ? null : parts[7]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
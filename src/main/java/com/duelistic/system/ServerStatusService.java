@@ -2,8 +2,6 @@ package com.duelistic.system;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
@@ -15,27 +13,39 @@ import java.util.List;
 import java.util.Set;
 import java.util.Properties;
 
+import com.duelistic.util.NetworkUtil;
+
 /**
  * Builds real-time server status snapshots from disk and player counts.
  */
 public class ServerStatusService {
-    private static final int CONNECT_TIMEOUT_MS = 200;
     private static final long COUNTS_TTL_MS = 30_000;
     private final CloudDirectories directories;
     private final ServerPlayerRegistry playerRegistry;
+    private final ServerStandbyPool standbyPool;
 
     /**
      * Creates a status service tied to cloud directories and player counts.
      */
-    public ServerStatusService(CloudDirectories directories, ServerPlayerRegistry playerRegistry) {
+    public ServerStatusService(CloudDirectories directories, ServerPlayerRegistry playerRegistry, ServerStandbyPool standbyPool) {
         this.directories = directories;
         this.playerRegistry = playerRegistry;
+        this.standbyPool = standbyPool;
     }
 
     /**
-     * Lists status snapshots for all known tmp servers.
+     * Lists status snapshots for all advertised tmp servers.
      */
     public List<ServerStatus> listStatuses() throws IOException {
+        return listStatuses(false);
+    }
+
+    /**
+     * Lists status snapshots for tmp servers.
+     *
+     * @param includeStandby whether unadvertised standby servers are included.
+     */
+    public List<ServerStatus> listStatuses(boolean includeStandby) throws IOException {
         // Merge servers discovered on disk with those that only sent counts via plugin.
         List<String> servers = directories.listTmpServers();
         Set<String> allServers = new HashSet<>(servers);
@@ -44,6 +54,9 @@ public class ServerStatusService {
         Collections.sort(combined);
         List<ServerStatus> statuses = new ArrayList<>();
         for (String server : combined) {
+            if (!includeStandby && standbyPool != null && standbyPool.isStandby(server)) {
+                continue;
+            }
             statuses.add(buildStatus(server));
         }
         return statuses;
@@ -56,13 +69,17 @@ public class ServerStatusService {
         // Build a status snapshot from disk config and live player counts.
         TemplateConfig config = loadTemplateConfig(serverName);
         String templateName = readTemplateName(serverName, config);
-        int port = readServerPort(serverName);
+        // Prefer the port known from launch over re-reading server.properties.
+        int port = playerRegistry.getPort(serverName);
+        if (port <= 0) {
+            port = readServerPort(serverName);
+        }
         ServerPlayerRegistry.PlayerCounts counts = playerRegistry.getCounts(serverName);
         Instant lastUpdatedAt = playerRegistry.getLastUpdatedAt(serverName);
         String displayName = playerRegistry.getDisplayName(serverName);
         boolean countsFresh = counts != null && lastUpdatedAt != null
             && Duration.between(lastUpdatedAt, Instant.now()).toMillis() <= COUNTS_TTL_MS;
-        boolean online = port > 0 && isPortOpen("127.0.0.1", port);
+        boolean online = port > 0 && NetworkUtil.isPortOpen(port);
         if (countsFresh) {
             // Plugin updates are considered authoritative for online state.
             online = true;
@@ -137,17 +154,4 @@ public class ServerStatusService {
             return -1;
         }
     }
-
-    /**
-     * Performs a quick TCP connect to determine if a port is open.
-     */
-    private boolean isPortOpen(String host, int port) {
-        // Quick TCP check to determine if the server is listening.
-        try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
-    }
 }
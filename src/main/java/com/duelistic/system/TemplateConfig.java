@@ -5,8 +5,13 @@ import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
@@ -15,21 +20,52 @@ import org.yaml.snakeyaml.Yaml;
  * Represents configuration for a server template stored in YAML.
  */
 public class TemplateConfig {
+    /**
+     * Log line pattern that marks a Minecraft or Velocity server as booted.
+     */
+    public static final String DEFAULT_READY_PATTERN = "Done \\(";
     private final String templateName;
     private final int maxRamMb;
     private final int maxPlayers;
     private final int serverMin;
     private final int serverMax;
+    private final List<String> linkInclude;
+    private final List<String> linkExclude;
+    private final int warmStandby;
+    private final int portRangeStart;
+    private final int portRangeEnd;
+    private final String parent;
+    private final boolean appCds;
+    private final String readyPattern;
+    private final long startTimeoutMs;
+    private final List<String> renderFiles;
 
     /**
-     * Creates a template configuration.
+     * Creates a template configuration without optional provisioning settings.
      */
     public TemplateConfig(String templateName, int maxRamMb, int maxPlayers, int serverMin, int serverMax) {
-        this.templateName = templateName;
-        this.maxRamMb = maxRamMb;
-        this.maxPlayers = maxPlayers;
-        this.serverMin = serverMin;
-        this.serverMax = serverMax;
+        this(new Builder(templateName, maxRamMb, maxPlayers, serverMin, serverMax));
+    }
+
+    /**
+     * Creates a template configuration from a builder.
+     */
+    private TemplateConfig(Builder builder) {
+        this.templateName = builder.templateName;
+        this.maxRamMb = builder.maxRamMb;
+        this.maxPlayers = builder.maxPlayers;
+        this.serverMin = builder.serverMin;
+        this.serverMax = builder.serverMax;
+        this.linkInclude = Collections.unmodifiableList(new ArrayList<>(builder.linkInclude));
+        this.linkExclude = Collections.unmodifiableList(new ArrayList<>(builder.linkExclude));
+        this.warmStandby = Math.max(0, builder.warmStandby);
+        this.portRangeStart = builder.portRangeStart;
+        this.portRangeEnd = builder.portRangeEnd;
+        this.parent = builder.parent;
+        this.appCds = builder.appCds;
+        this.readyPattern = builder.readyPattern;
+        this.startTimeoutMs = Math.max(0, builder.startTimeoutMs);
+        this.renderFiles = Collections.unmodifiableList(new ArrayList<>(builder.renderFiles));
     }
 
     /**
@@ -67,6 +103,84 @@ public class TemplateConfig {
         return serverMax;
     }
 
+    /**
+     * Returns glob patterns of template files that are hard-linked into servers.
+     */
+    public List<String> getLinkInclude() {
+        return linkInclude;
+    }
+
+    /**
+     * Returns glob patterns of template files that must always be copied.
+     */
+    public List<String> getLinkExclude() {
+        return linkExclude;
+    }
+
+    /**
+     * Returns how many pre-booted standby servers to keep for this template.
+     */
+    public int getWarmStandby() {
+        return warmStandby;
+    }
+
+    /**
+     * Returns true if the template allocates ports from its own range.
+     */
+    public boolean hasPortRange() {
+        return portRangeStart > 0 && portRangeEnd >= portRangeStart;
+    }
+
+    /**
+     * Returns the first port of the template's own range, or -1 if unset.
+     */
+    public int getPortRangeStart() {
+        return portRangeStart;
+    }
+
+    /**
+     * Returns the last port of the template's own range, or -1 if unset.
+     */
+    public int getPortRangeEnd() {
+        return portRangeEnd;
+    }
+
+    /**
+     * Returns the parent template this template inherits files from, or null.
+     */
+    public String getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns true if servers of this template boot with an AppCDS class archive.
+     */
+    public boolean isAppCds() {
+        return appCds;
+    }
+
+    /**
+     * Returns the regex of the log line that marks a server as booted.
+     */
+    public String getReadyPattern() {
+        return readyPattern != null ? readyPattern : DEFAULT_READY_PATTERN;
+    }
+
+    /**
+     * Returns how long a server may take to boot before it is relaunched, 0 for the global default.
+     */
+    public long getStartTimeoutMs() {
+        return startTimeoutMs;
+    }
+
+    /**
+     * Returns files whose {@code {port}}, {@code {name}}, {@code {template}} and {@code {index}}
+     * placeholders are filled in for each server.
+     */
+    public List<String> getRenderFiles() {
+        return renderFiles;
+    }
+
     /**
      * Writes the config to a YAML file on disk.
      */
@@ -99,7 +213,38 @@ public class TemplateConfig {
         int serverMin = readInt(data, "serverMin");
         int serverMax = readInt(data, "serverMax");
         String templateName = readString(data, "templateName");
-        return new TemplateConfig(templateName, maxRamMb, maxPlayers, serverMin, serverMax);
+        List<String> linkInclude = readStringList(data, "linkInclude");
+        List<String> linkExclude = readStringList(data, "linkExclude");
+        int warmStandby = readOptionalInt(data, "warmStandby", 0);
+        int[] portRange = readPortRange(data, "portRange");
+        String parent = readString(data, "parent");
+        boolean appCds = Boolean.parseBoolean(readString(data, "appCds"));
+        String readyPattern = readString(data, "readyPattern");
+        if (readyPattern != null) {
+            try {
+                Pattern.compile(readyPattern);
+            } catch (PatternSyntaxException e) {
+                throw new IOException("Invalid 'readyPattern' value: " + e.getDescription());
+            }
+        }
+        int startTimeoutMs = readOptionalInt(data, "startTimeoutMs", 0);
+        List<String> renderFiles = readStringList(data, "renderFiles");
+        for (String renderFile : renderFiles) {
+            if (renderFile.startsWith("/") || renderFile.contains("..")) {
+                throw new IOException("Invalid 'renderFiles' value: " + renderFile);
+            }
+        }
+        return new Builder(templateName, maxRamMb, maxPlayers, serverMin, serverMax)
+            .linkInclude(linkInclude)
+            .linkExclude(linkExclude)
+            .warmStandby(warmStandby)
+            .portRange(portRange[0], portRange[1])
+            .parent(parent)
+            .appCds(appCds)
+            .readyPattern(readyPattern)
+            .startTimeoutMs(startTimeoutMs)
+            .renderFiles(renderFiles)
+            .build();
     }
 
     /**
@@ -115,6 +260,33 @@ public class TemplateConfig {
         data.put("maxPlayers", maxPlayers);
         data.put("serverMin", serverMin);
         data.put("serverMax", serverMax);
+        if (!linkInclude.isEmpty()) {
+            data.put("linkInclude", new ArrayList<>(linkInclude));
+        }
+        if (!linkExclude.isEmpty()) {
+            data.put("linkExclude", new ArrayList<>(linkExclude));
+        }
+        if (warmStandby > 0) {
+            data.put("warmStandby", warmStandby);
+        }
+        if (hasPortRange()) {
+            data.put("portRange", portRangeStart + "-" + portRangeEnd);
+        }
+        if (parent != null) {
+            data.put("parent", parent);
+        }
+        if (appCds) {
+            data.put("appCds", true);
+        }
+        if (readyPattern != null) {
+            data.put("readyPattern", readyPattern);
+        }
+        if (startTimeoutMs > 0) {
+            data.put("startTimeoutMs", startTimeoutMs);
+        }
+        if (!renderFiles.isEmpty()) {
+            data.put("renderFiles", new ArrayList<>(renderFiles));
+        }
         return data;
     }
 
@@ -136,6 +308,39 @@ public class TemplateConfig {
         }
     }
 
+    /**
+     * Reads an optional integer field from the YAML map.
+     */
+    private static int readOptionalInt(Map<String, Object> data, String key, int fallback) throws IOException {
+        if (data.get(key) == null) {
+            return fallback;
+        }
+        return readInt(data, key);
+    }
+
+    /**
+     * Reads an optional "start-end" port range from the YAML map.
+     *
+     * @return start and end port, or -1 for both if unset.
+     */
+    private static int[] readPortRange(Map<String, Object> data, String key) throws IOException {
+        String value = readString(data, key);
+        if (value == null) {
+            return new int[] {-1, -1};
+        }
+        String[] parts = value.split("-", 2);
+        try {
+            int start = Integer.parseInt(parts[0].trim());
+            int end = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : start;
+            if (start <= 0 || end < start || end > 65535) {
+                throw new IOException("Invalid '" + key + "' value: " + value);
+            }
+            return new int[] {start, end};
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid '" + key + "' value: " + value);
+        }
+    }
+
     /**
      * Reads an optional string field from the YAML map.
      */
@@ -148,4 +353,148 @@ public class TemplateConfig {
         String text = String.valueOf(value).trim();
         return text.isEmpty() ? null : text;
     }
+
+    /**
+     * Reads an optional list of strings from the YAML map.
+     */
+    private static List<String> readStringList(Map<String, Object> data, String key) throws IOException {
+        // Accept either a YAML list or a single scalar value.
+        Object value = data.get(key);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object entry : (List<?>) value) {
+                if (entry == null) {
+                    continue;
+                }
+                String text = String.valueOf(entry).trim();
+                if (!text.isEmpty()) {
+                    values.add(text);
+                }
+            }
+            return values;
+        }
+        if (value instanceof Map) {
+            throw new IOException("Invalid '" + key + "' value: expected a list.");
+        }
+        String text = String.valueOf(value).trim();
+        if (!text.isEmpty()) {
+            values.add(text);
+        }
+        return values;
+    }
+
+    /**
+     * Collects the optional provisioning and launch settings of a template.
+     */
+    public static class Builder {
+        private final String templateName;
+        private final int maxRamMb;
+        private final int maxPlayers;
+        private final int serverMin;
+        private final int serverMax;
+        private List<String> linkInclude = Collections.emptyList();
+        private List<String> linkExclude = Collections.emptyList();
+        private int warmStandby;
+        private int portRangeStart = -1;
+        private int portRangeEnd = -1;
+        private String parent;
+        private boolean appCds;
+        private String readyPattern;
+        private long startTimeoutMs;
+        private List<String> renderFiles = Collections.emptyList();
+
+        /**
+         * Creates a builder with the required template settings.
+         */
+        public Builder(String templateName, int maxRamMb, int maxPlayers, int serverMin, int serverMax) {
+            this.templateName = templateName;
+            this.maxRamMb = maxRamMb;
+            this.maxPlayers = maxPlayers;
+            this.serverMin = serverMin;
+            this.serverMax = serverMax;
+        }
+
+        /**
+         * Sets glob patterns of files that are hard-linked instead of copied.
+         */
+        public Builder linkInclude(List<String> linkInclude) {
+            this.linkInclude = linkInclude;
+            return this;
+        }
+
+        /**
+         * Sets glob patterns that are always copied even if included.
+         */
+        public Builder linkExclude(List<String> linkExclude) {
+            this.linkExclude = linkExclude;
+            return this;
+        }
+
+        /**
+         * Sets the number of booted but unadvertised servers to keep ready.
+         */
+        public Builder warmStandby(int warmStandby) {
+            this.warmStandby = warmStandby;
+            return this;
+        }
+
+        /**
+         * Sets the template's own port range, or -1 for both to use the global range.
+         */
+        public Builder portRange(int start, int end) {
+            this.portRangeStart = start;
+            this.portRangeEnd = end;
+            return this;
+        }
+
+        /**
+         * Sets the template whose files form the base layer, or null.
+         */
+        public Builder parent(String parent) {
+            this.parent = parent;
+            return this;
+        }
+
+        /**
+         * Sets whether servers boot with a trained AppCDS class archive.
+         */
+        public Builder appCds(boolean appCds) {
+            this.appCds = appCds;
+            return this;
+        }
+
+        /**
+         * Sets the regex of the log line that marks a server as booted, or null for the default.
+         */
+        public Builder readyPattern(String readyPattern) {
+            this.readyPattern = readyPattern;
+            return this;
+        }
+
+        /**
+         * Sets the time a server may take to boot before it is relaunched, 0 for the global default.
+         */
+        public Builder startTimeoutMs(long startTimeoutMs) {
+            this.startTimeoutMs = startTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Sets files relative to the server directory whose placeholders are filled per server.
+         */
+        public Builder renderFiles(List<String> renderFiles) {
+            this.renderFiles = renderFiles;
+            return this;
+        }
+
+        /**
+         * Creates the template configuration.
+         */
+        public TemplateConfig build() {
+            return new TemplateConfig(this);
+        }
+    }
 }
@@ -0,0 +1,274 @@
+package com.duelistic.system;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Path, size, modification time and content hash of every file in a template.
+ *
+ * <p>Manifests are stored as one tab-separated line per entry and rebuilt
+ * incrementally: files whose size and modification time are unchanged keep
+ * their previous hash.</p>
+ */
+public class TemplateManifest {
+    private static final String DIRECTORY_HASH = "-";
+
+    /**
+     * A single file or directory of a manifest.
+     */
+    public static class Entry {
+        private final String path;
+        private final long size;
+        private final long modifiedMillis;
+        private final String hash;
+
+        /**
+         * Creates a manifest entry. Directories use a size of -1.
+         */
+        public Entry(String path, long size, long modifiedMillis, String hash) {
+            this.path = path;
+            this.size = size;
+            this.modifiedMillis = modifiedMillis;
+            this.hash = hash;
+        }
+
+        /**
+         * Returns the path relative to the template root, using '/' separators.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Returns true if the entry is a directory.
+         */
+        public boolean isDirectory() {
+            return size < 0;
+        }
+
+        /**
+         * Returns the file size in bytes.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the last modification time in epoch millis.
+         */
+        public long getModifiedMillis() {
+            return modifiedMillis;
+        }
+
+        /**
+         * Returns the SHA-256 content hash as hex.
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * Returns true if size and modification time match the given attributes.
+         */
+        boolean matches(BasicFileAttributes attributes) {
+            if (isDirectory()) {
+                return attributes.isDirectory();
+            }
+            return attributes.isRegularFile()
+                && attributes.size() == size
+                && attributes.lastModifiedTime().toMillis() == modifiedMillis;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    private TemplateManifest(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns an empty manifest.
+     */
+    public static TemplateManifest empty() {
+        return new TemplateManifest(new TreeMap<>());
+    }
+
+    /**
+     * Builds a manifest for the given files, reusing hashes from previous manifests.
+     *
+     * @param sources relative path to source file or directory.
+     * @param previous manifests whose matching entries are reused, checked in order.
+     */
+    public static TemplateManifest build(Map<String, Path> sources, TemplateManifest... previous) throws IOException {
+        Map<String, Entry> entries = new TreeMap<>();
+        for (Map.Entry<String, Path> source : sources.entrySet()) {
+            String relative = source.getKey();
+            BasicFileAttributes attributes = Files.readAttributes(source.getValue(), BasicFileAttributes.class);
+            Entry existing = findMatching(relative, attributes, previous);
+            if (existing != null) {
+                entries.put(relative, existing);
+                continue;
+            }
+            if (attributes.isDirectory()) {
+                entries.put(relative, new Entry(relative, -1, 0, DIRECTORY_HASH));
+            } else {
+                entries.put(relative, new Entry(relative,
+                    attributes.size(),
+                    attributes.lastModifiedTime().toMillis(),
+                    hash(source.getValue())));
+            }
+        }
+        return new TemplateManifest(entries);
+    }
+
+    /**
+     * Returns the first entry for a path whose size and mtime still match, or null.
+     */
+    private static Entry findMatching(String path, BasicFileAttributes attributes, TemplateManifest[] candidates) {
+        for (TemplateManifest candidate : candidates) {
+            Entry entry = candidate.get(path);
+            if (entry != null && entry.matches(attributes)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a manifest from disk, returning an empty manifest if the file is missing.
+     */
+    public static TemplateManifest readFrom(Path file) throws IOException {
+        Map<String, Entry> entries = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return new TemplateManifest(entries);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Format: size, mtime, hash, path (path last so it may contain spaces).
+                String[] parts = line.split("\t", 4);
+                if (parts.length != 4) {
+                    continue;
+                }
+                try {
+                    entries.put(parts[3], new Entry(parts[3], Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]));
+                } catch (NumberFormatException e) {
+                    // Skip corrupt lines; the entry is rehashed on the next build.
+                }
+            }
+        }
+        return new TemplateManifest(entries);
+    }
+
+    /**
+     * Writes the manifest to disk atomically.
+     */
+    public void writeTo(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Entry entry : entries.values()) {
+                writer.write(entry.getSize() + "\t" + entry.getModifiedMillis() + "\t" + entry.getHash() + "\t" + entry.getPath());
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the entry for a relative path, or null.
+     */
+    public Entry get(String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * Returns all entries sorted by path.
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Returns the number of files, excluding directories.
+     */
+    public int getFileCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (!entry.isDirectory()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total size of all files in bytes.
+     */
+    public long getTotalBytes() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            if (!entry.isDirectory()) {
+                total += entry.getSize();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns true if both manifests contain identical entries.
+     */
+    public boolean sameAs(TemplateManifest other) {
+        if (other == null || other.entries.size() != entries.size()) {
+            return false;
+        }
+        for (Entry entry : entries.values()) {
+            Entry otherEntry = other.entries.get(entry.getPath());
+            if (otherEntry == null
+                || otherEntry.getSize() != entry.getSize()
+                || otherEntry.getModifiedMillis() != entry.getModifiedMillis()
+                || !otherEntry.getHash().equals(entry.getHash())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file as hex.
+     */
+    static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder builder = new StringBuilder(64);
+        for (byte value : digest.digest()) {
+            builder.append(Character.forDigit((value >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(value & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
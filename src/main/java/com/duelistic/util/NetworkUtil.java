@@ -0,0 +1,24 @@
+package com.duelistic.util;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Utility class for quick checks against local server ports
+ */
+public class NetworkUtil {
+    private static final int CONNECT_TIMEOUT_MS = 200;
+
+    /**
+     * Returns true if a TCP connect to the local port succeeds within a short timeout
+     */
+    public static boolean isPortOpen(int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", port), CONNECT_TIMEOUT_MS);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -32,7 +32,8 @@ public class VirtualResourceUtil {
     public long getTotalRamDemandMb() {
         try {
             long usedMemory = 0;
-            for (ServerStatus status : statusService.listStatuses()) {
+            // Standby servers are unadvertised but still reserve their RAM.
+            for (ServerStatus status : statusService.listStatuses(true)) {
                 if (!directories.templateExists(status.getTemplate())) {
                     throw new IOException("Template "+status.getTemplate()+ " doesn't exist");
                 }
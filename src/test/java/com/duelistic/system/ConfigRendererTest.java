@@ -0,0 +1,56 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the per-server config renderer.
+ */
+public class ConfigRendererTest
+    extends TestCase
+{
+    /**
+     * Verifies known placeholders are filled and unknown ones are left alone.
+     */
+    public void testRendersPlaceholders() throws IOException
+    {
+        Path file = Files.createTempDirectory( "render" ).resolve( "spigot.yml" );
+        write( file, "settings:\r\n  bungeecord: true\r\n  name: {name} of {template} #{index}\r\n  motd: {unknown}:{port}" );
+
+        ConfigRenderer.render( file, ConfigRenderer.values( "duels", "duels-7", 30066 ) );
+        assertEquals( "settings:\r\n  bungeecord: true\r\n  name: duels-7 of duels #7\r\n  motd: {unknown}:30066",
+            read( file ) );
+    }
+
+    /**
+     * Verifies property lines are replaced in place or appended when missing.
+     */
+    public void testSetsProperties() throws IOException
+    {
+        Path file = Files.createTempDirectory( "render" ).resolve( "server.properties" );
+        write( file, "#server-port=1\nserver-port=25565\nmotd={name}" );
+
+        Map<String, String> values = ConfigRenderer.values( "lobby", "lobby-2", 30001 );
+        ConfigRenderer.render( file, values, Collections.singletonMap( "server-port", "30001" ) );
+        assertEquals( "#server-port=1\nserver-port=30001\nmotd=lobby-2", read( file ) );
+
+        ConfigRenderer.render( file, values, Collections.singletonMap( "query.port", "30001" ) );
+        assertEquals( "#server-port=1\nserver-port=30001\nmotd=lobby-2\nquery.port=30001\n", read( file ) );
+    }
+
+    private static void write( Path file, String text ) throws IOException
+    {
+        Files.write( file, text.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    private static String read( Path file ) throws IOException
+    {
+        return new String( Files.readAllBytes( file ), StandardCharsets.UTF_8 );
+    }
+}
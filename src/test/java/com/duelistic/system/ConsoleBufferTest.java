@@ -0,0 +1,66 @@
+package com.duelistic.system;
+
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the per-server console ring buffer.
+ */
+public class ConsoleBufferTest
+    extends TestCase
+{
+    /**
+     * Verifies the tail returns the requested number of complete lines.
+     */
+    public void testTailReturnsLastLines()
+    {
+        ConsoleBuffer buffer = new ConsoleBuffer( 1024 );
+        append( buffer, "one\ntwo\nthree\n" );
+
+        assertEquals( "two\nthree\n", new String( buffer.tail( 2 ), StandardCharsets.UTF_8 ) );
+        assertEquals( "one\ntwo\nthree\n", new String( buffer.tail( 10 ), StandardCharsets.UTF_8 ) );
+        assertEquals( 0, buffer.tail( 0 ).length );
+    }
+
+    /**
+     * Verifies old output is overwritten once the buffer wraps around.
+     */
+    public void testWrapsAround()
+    {
+        ConsoleBuffer buffer = new ConsoleBuffer( 1024 );
+        for ( int i = 0; i < 200; i++ )
+        {
+            append( buffer, "line " + i + "\n" );
+        }
+
+        String tail = new String( buffer.tail( 1000 ), StandardCharsets.UTF_8 );
+        assertTrue( tail.length() <= 1024 );
+        assertTrue( tail.endsWith( "line 198\nline 199\n" ) );
+        assertFalse( tail.contains( "line 1\n" ) );
+    }
+
+    /**
+     * Verifies a follower reads the tail, then new output, then ends after close.
+     */
+    public void testFollowerReadsUntilClosed() throws InterruptedException
+    {
+        ConsoleBuffer buffer = new ConsoleBuffer( 1024 );
+        append( buffer, "old\nrecent\n" );
+        ConsoleBuffer.Follower follower = buffer.follow( 1 );
+        byte[] chunk = new byte[64];
+
+        assertEquals( "recent\n", new String( chunk, 0, follower.read( chunk, 10 ), StandardCharsets.UTF_8 ) );
+        assertEquals( 0, follower.read( chunk, 10 ) );
+        append( buffer, "next\n" );
+        assertEquals( "next\n", new String( chunk, 0, follower.read( chunk, 10 ), StandardCharsets.UTF_8 ) );
+        buffer.close();
+        assertEquals( -1, follower.read( chunk, 10 ) );
+    }
+
+    private static void append( ConsoleBuffer buffer, String text )
+    {
+        byte[] bytes = text.getBytes( StandardCharsets.UTF_8 );
+        buffer.append( bytes, 0, bytes.length );
+    }
+}
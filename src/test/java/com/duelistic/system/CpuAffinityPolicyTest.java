@@ -0,0 +1,55 @@
+package com.duelistic.system;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for CPU core placement of servers.
+ */
+public class CpuAffinityPolicyTest
+    extends TestCase
+{
+    /**
+     * Verifies ranges and single cores are parsed and invalid entries skipped.
+     */
+    public void testParsesCoreList()
+    {
+        assertTrue( Arrays.equals( new int[] { 0, 1, 2, 5, 8 },
+            CpuAffinityPolicy.parseCoreList( "5, 0-2,x,8" ) ) );
+        assertEquals( 0, CpuAffinityPolicy.parseCoreList( "" ).length );
+    }
+
+    /**
+     * Verifies servers are spread over free cores before cores are shared.
+     */
+    public void testSpreadsServersAcrossCores()
+    {
+        CpuAffinityPolicy policy = new CpuAffinityPolicy( false, "0-3", 1, null );
+        Set<Integer> used = new HashSet<>();
+        for ( int i = 0; i < 4; i++ )
+        {
+            used.add( policy.assign( "duels-" + i )[0] );
+        }
+        assertEquals( 4, used.size() );
+
+        policy.release( "duels-2" );
+        assertNull( policy.getAssignment( "duels-2" ) );
+        assertEquals( 2, policy.assign( "duels-4" )[0] );
+        assertEquals( "2", policy.getAssignment( "duels-4" ) );
+    }
+
+    /**
+     * Verifies a disabled policy leaves the command unchanged.
+     */
+    public void testDisabledPolicyKeepsCommand()
+    {
+        CpuAffinityPolicy policy = new CpuAffinityPolicy( false, "0-1", 2, null );
+
+        assertEquals( Arrays.asList( "java", "-jar", "server.jar" ),
+            policy.apply( "lobby-1", Arrays.asList( "java", "-jar", "server.jar" ) ) );
+        assertNull( policy.getAssignment( "lobby-1" ) );
+    }
+}
@@ -0,0 +1,50 @@
+package com.duelistic.system;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the launch phase histograms.
+ */
+public class LaunchMetricsTest
+    extends TestCase
+{
+    /**
+     * Verifies percentiles resolve to the upper bound of their power-of-two bucket.
+     */
+    public void testPercentiles()
+    {
+        LaunchMetrics metrics = new LaunchMetrics();
+        for ( int i = 0; i < 98; i++ )
+        {
+            metrics.record( "lobby", LaunchMetrics.PHASE_COPY, 3 );
+        }
+        metrics.record( "lobby", LaunchMetrics.PHASE_COPY, 700 );
+        metrics.record( "lobby", LaunchMetrics.PHASE_COPY, 900 );
+
+        LaunchMetrics.Histogram copy = metrics.snapshot( "lobby" ).get( 0 );
+        assertEquals( 100, copy.getCount() );
+        assertEquals( 4, copy.getPercentileMs( 50 ) );
+        assertEquals( 4, copy.getPercentileMs( 95 ) );
+        assertEquals( 900, copy.getPercentileMs( 100 ) );
+        assertEquals( 900, copy.getMaxMs() );
+    }
+
+    /**
+     * Verifies snapshots are filtered by template and ordered by launch phase.
+     */
+    public void testSnapshotOrder()
+    {
+        LaunchMetrics metrics = new LaunchMetrics();
+        metrics.record( "lobby", LaunchMetrics.PHASE_BOOT, 4000 );
+        metrics.record( "lobby", LaunchMetrics.PHASE_PORT, 0 );
+        metrics.record( "duels", LaunchMetrics.PHASE_COPY, 12 );
+
+        List<LaunchMetrics.Histogram> lobby = metrics.snapshot( "lobby" );
+        assertEquals( 2, lobby.size() );
+        assertEquals( LaunchMetrics.PHASE_PORT, lobby.get( 0 ).getPhase() );
+        assertEquals( LaunchMetrics.PHASE_BOOT, lobby.get( 1 ).getPhase() );
+        assertEquals( "duels", metrics.snapshot( null ).get( 0 ).getTemplateName() );
+    }
+}
@@ -0,0 +1,59 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the compiled launch spec cache.
+ */
+public class LaunchSpecCacheTest
+    extends TestCase
+{
+    /**
+     * Verifies a spec is reused until the template config changes.
+     */
+    public void testRecompilesOnConfigChange() throws IOException
+    {
+        CloudDirectories directories = new CloudDirectories( Files.createTempDirectory( "specs" ) );
+        Path templateDir = directories.getTemplateDir( "lobby" );
+        Files.createDirectories( templateDir );
+        Files.createFile( templateDir.resolve( "server.properties" ) );
+        Files.createFile( templateDir.resolve( "paper.jar" ) );
+        new TemplateConfig( "lobby", 1024, 20, 1, 4 ).writeTo( directories.getTemplateConfigFile( "lobby" ) );
+
+        LaunchSpecCache cache = new LaunchSpecCache( directories );
+        LaunchSpec spec = cache.get( "lobby" );
+        assertEquals( "paper.jar", spec.getJarName() );
+        assertEquals( Arrays.asList( "server.properties" ), spec.getPatchFiles() );
+        assertEquals( Arrays.asList( "java", "-Xms1024M", "-Xmx1024M", "-jar", "paper.jar" ), spec.render( null ) );
+        assertSame( spec, cache.get( "lobby" ) );
+
+        Path configFile = directories.getTemplateConfigFile( "lobby" );
+        new TemplateConfig( "lobby", 2048, 20, 1, 4 ).writeTo( configFile );
+        Files.setLastModifiedTime( configFile, FileTime.fromMillis( System.currentTimeMillis() + 5000 ) );
+        assertEquals( 2048, cache.get( "lobby" ).getRamMb() );
+    }
+
+    /**
+     * Verifies a child template resolves the jar from its parent layer.
+     */
+    public void testInheritsParentJar() throws IOException
+    {
+        CloudDirectories directories = new CloudDirectories( Files.createTempDirectory( "specs" ) );
+        Files.createDirectories( directories.getTemplateDir( "base" ) );
+        Files.createFile( directories.getTemplateDir( "base" ).resolve( "paper.jar" ) );
+        new TemplateConfig( "base", 512, 10, 0, 0 ).writeTo( directories.getTemplateConfigFile( "base" ) );
+        new TemplateConfig.Builder( "duels", 1024, 2, 1, 8 ).parent( "base" ).build()
+            .writeTo( directories.getTemplateConfigFile( "duels" ) );
+
+        LaunchSpec spec = new LaunchSpecCache( directories ).get( "duels" );
+        assertEquals( Arrays.asList( "base", "duels" ), spec.getLayers() );
+        assertEquals( "paper.jar", spec.getJarName() );
+        assertEquals( 1024, spec.getRamMb() );
+    }
+}
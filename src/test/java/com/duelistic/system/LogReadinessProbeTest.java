@@ -0,0 +1,55 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the log tailing readiness probe.
+ */
+public class LogReadinessProbeTest
+    extends TestCase
+{
+    private static final Pattern DONE = Pattern.compile( TemplateConfig.DEFAULT_READY_PATTERN );
+
+    /**
+     * Verifies the probe matches only once the ready line is complete.
+     */
+    public void testMatchesAppendedLine() throws IOException
+    {
+        Path log = Files.createTempDirectory( "probe" ).resolve( "latest.log" );
+        LogReadinessProbe probe = new LogReadinessProbe( log, DONE );
+        assertFalse( probe.getAsBoolean() );
+
+        append( log, "[Server thread/INFO]: Preparing spawn area\n[Server thread/INFO]: Done (" );
+        assertFalse( probe.getAsBoolean() );
+        append( log, "4.2s)! For help, type \"help\"\n" );
+        assertTrue( probe.getAsBoolean() );
+    }
+
+    /**
+     * Verifies a ready line from a previous run is ignored until the log is rotated.
+     */
+    public void testSkipsPreviousRun() throws IOException
+    {
+        Path log = Files.createTempDirectory( "probe" ).resolve( "latest.log" );
+        append( log, "[Server thread/INFO]: Done (3.0s)!\n" );
+        LogReadinessProbe probe = new LogReadinessProbe( log, DONE );
+        assertFalse( probe.getAsBoolean() );
+
+        Files.move( log, log.resolveSibling( "old.log" ) );
+        append( log, "[Server thread/INFO]: Done (2.1s)!\n" );
+        assertTrue( probe.getAsBoolean() );
+    }
+
+    private static void append( Path file, String text ) throws IOException
+    {
+        Files.write( file, text.getBytes( StandardCharsets.UTF_8 ),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND );
+    }
+}
@@ -0,0 +1,62 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the bitmap-based port allocator.
+ */
+public class PortAllocatorTest
+    extends TestCase
+{
+    /**
+     * Verifies ports are handed out lowest-first and reused after release.
+     */
+    public void testReserveAndRelease() throws IOException
+    {
+        PortAllocator allocator = new PortAllocator( 41200, 41209 );
+        int first = allocator.reserve( "lobby-1" );
+        int second = allocator.reserve( "lobby-2" );
+        assertTrue( second > first );
+        assertEquals( first, allocator.reserve( "lobby-1" ) );
+
+        allocator.release( "lobby-1" );
+        assertEquals( -1, allocator.getPort( "lobby-1" ) );
+        assertEquals( first, allocator.reserve( "lobby-3" ) );
+    }
+
+    /**
+     * Verifies an exhausted range fails instead of leaving it.
+     */
+    public void testRangeExhausted()
+    {
+        PortAllocator allocator = new PortAllocator( 41210, 41219 );
+        allocator.reserveExisting( "duel-1", 41220 );
+        try {
+            int port = allocator.reserve( "duel-2", 41220, 41220 );
+            fail( "Expected exhausted range, got " + port );
+        } catch ( IOException e ) {
+            assertEquals( 41220, allocator.getPort( "duel-1" ) );
+        }
+    }
+
+    /**
+     * Verifies a port that was busy once is probed again when the range runs out.
+     */
+    public void testForeignPortProbedAgain() throws IOException
+    {
+        PortAllocator allocator = new PortAllocator( 41240, 41249 );
+        try ( ServerSocket busy = new ServerSocket( 41240 ) )
+        {
+            try {
+                int port = allocator.reserve( "duel-1", 41240, 41240 );
+                fail( "Expected busy port, got " + port );
+            } catch ( IOException e ) {
+                // Expected while the port is bound.
+            }
+        }
+        assertEquals( 41240, allocator.reserve( "duel-1", 41240, 41240 ) );
+    }
+}
@@ -0,0 +1,118 @@
+package com.duelistic.system;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the /proc based per-server resource sampler.
+ */
+public class ProcessResourceSamplerTest
+    extends TestCase
+{
+    /**
+     * Verifies utime and stime are found even if the command name contains spaces and parentheses.
+     */
+    public void testParsesCpuTicks()
+    {
+        byte[] stat = ( "4242 (java (srv) 1) S 1 4242 4242 0 -1 4194560 5311 0 0 0 "
+            + "1200 345 0 0 20 0 42 0 1000 5000000 2000 18446744073709551615\n" ).getBytes( StandardCharsets.US_ASCII );
+
+        assertEquals( 1545, ProcessResourceSampler.parseCpuTicks( stat, stat.length ) );
+        assertEquals( -1, ProcessResourceSampler.parseCpuTicks( stat, 10 ) );
+    }
+
+    /**
+     * Verifies resident pages and io fields are parsed.
+     */
+    public void testParsesMemoryAndIo()
+    {
+        byte[] statm = "250000 81234 4000 1 0 90000 0\n".getBytes( StandardCharsets.US_ASCII );
+        byte[] io = "rchar: 10\nwchar: 20\nread_bytes: 4096\nwrite_bytes: 8192\n".getBytes( StandardCharsets.US_ASCII );
+
+        assertEquals( 81234, ProcessResourceSampler.parseResidentPages( statm, statm.length ) );
+        assertEquals( 4096, ProcessResourceSampler.parseField( io, io.length, "read_bytes:".getBytes( StandardCharsets.US_ASCII ) ) );
+        assertEquals( 8192, ProcessResourceSampler.parseField( io, io.length, "write_bytes:".getBytes( StandardCharsets.US_ASCII ) ) );
+        assertEquals( -1, ProcessResourceSampler.parseField( io, io.length, "cancelled:".getBytes( StandardCharsets.US_ASCII ) ) );
+    }
+
+    /**
+     * Verifies a pass samples a live process and drops servers that are gone.
+     */
+    public void testSamplesLiveProcess()
+    {
+        if ( !Files.isDirectory( Paths.get( "/proc/self" ) ) )
+        {
+            return;
+        }
+        FakeProcessManager processManager = new FakeProcessManager();
+        ProcessResourceSampler sampler = new ProcessResourceSampler( processManager, 1000 );
+
+        sampler.sample();
+        sampler.sample();
+        ProcessResourceSampler.Usage usage = sampler.getUsage( "self-1" );
+        assertNotNull( usage );
+        assertEquals( ProcessHandle.current().pid(), usage.getPid() );
+        assertTrue( usage.getRssBytes() > 0 );
+        assertTrue( usage.getCpuPercent() >= 0 );
+
+        processManager.servers = Collections.emptyList();
+        sampler.sample();
+        assertNull( sampler.getUsage( "self-1" ) );
+    }
+
+    /**
+     * Process manager reporting the test JVM as its only server.
+     */
+    private static class FakeProcessManager
+        implements ServerProcessManager
+    {
+        private List<String> servers = Collections.singletonList( "self-1" );
+
+        public void startServer( String name, List<String> command, Path workingDir )
+        {
+        }
+
+        public boolean adoptServer( String name, ProcessHandle process )
+        {
+            return false;
+        }
+
+        public void stopServer( String name )
+        {
+        }
+
+        public List<String> listServers()
+        {
+            return servers;
+        }
+
+        public void attachServer( String name )
+        {
+        }
+
+        public boolean sendCommand( String name, String command )
+        {
+            return false;
+        }
+
+        public ProcessHandle getProcess( String name )
+        {
+            return servers.contains( name ) ? ProcessHandle.current() : null;
+        }
+
+        public ConsoleBuffer getConsole( String name )
+        {
+            return null;
+        }
+
+        public void setExitListener( ServerExitListener listener )
+        {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.duelistic.system;
+
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the rule that flags servers with an open port but missed heartbeats.
+ */
+public class ServerHangWatchdogTest
+    extends TestCase
+{
+    private static final long HEARTBEAT_INTERVAL_MS = 60_000;
+    private static final int MISSED_HEARTBEATS = 3;
+    private static final Clock AN_HOUR_LATER = Clock.offset( Clock.systemUTC(), Duration.ofHours( 1 ) );
+
+    private ServerPlayerRegistry registry;
+    private Set<String> transitioning;
+    private List<ServerHangEvent> events;
+    private ServerSocket socket;
+
+    protected void setUp()
+        throws Exception
+    {
+        registry = new ServerPlayerRegistry();
+        transitioning = new HashSet<>();
+        events = new ArrayList<>();
+        socket = new ServerSocket( 0 );
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        socket.close();
+    }
+
+    /**
+     * Verifies a server with an open port and missed heartbeats is reported once per silence.
+     */
+    public void testOpenPortWithMissedHeartbeatsIsHung()
+    {
+        registry.registerServer( "lobby-1", 20, socket.getLocalPort() );
+        registry.setCounts( "lobby-1", 0, 20 );
+        ServerHangWatchdog watchdog = newWatchdog( AN_HOUR_LATER );
+
+        watchdog.checkServers();
+        watchdog.checkServers();
+
+        assertEquals( 1, events.size() );
+        assertEquals( "lobby-1", events.get( 0 ).getServerName() );
+        assertEquals( socket.getLocalPort(), events.get( 0 ).getPort() );
+    }
+
+    /**
+     * Verifies a heartbeat within the missed-heartbeat window is not hung.
+     */
+    public void testRecentHeartbeatIsNotHung()
+    {
+        registry.registerServer( "lobby-1", 20, socket.getLocalPort() );
+        registry.setCounts( "lobby-1", 0, 20 );
+
+        newWatchdog( Clock.systemUTC() ).checkServers();
+
+        assertTrue( events.isEmpty() );
+    }
+
+    /**
+     * Verifies a server whose plugin never reported is not watched.
+     */
+    public void testMissingHeartbeatIsNotHung()
+    {
+        registry.registerServer( "lobby-1", 20, socket.getLocalPort() );
+
+        newWatchdog( AN_HOUR_LATER ).checkServers();
+
+        assertTrue( events.isEmpty() );
+    }
+
+    /**
+     * Verifies servers being launched or stopped are skipped even when silent.
+     */
+    public void testBootingOrStoppingServerIsSkipped()
+    {
+        registry.registerServer( "lobby-1", 20, socket.getLocalPort() );
+        registry.setCounts( "lobby-1", 0, 20 );
+        transitioning.add( "lobby-1" );
+
+        newWatchdog( AN_HOUR_LATER ).checkServers();
+
+        assertTrue( events.isEmpty() );
+    }
+
+    /**
+     * Verifies a silent server with a closed port is left to crash handling.
+     */
+    public void testClosedPortIsNotHung()
+        throws Exception
+    {
+        int port = socket.getLocalPort();
+        socket.close();
+        registry.registerServer( "lobby-1", 20, port );
+        registry.setCounts( "lobby-1", 0, 20 );
+
+        newWatchdog( AN_HOUR_LATER ).checkServers();
+
+        assertTrue( events.isEmpty() );
+    }
+
+    private ServerHangWatchdog newWatchdog( Clock clock )
+    {
+        ServerHangWatchdog watchdog = new ServerHangWatchdog( null, registry, null, transitioning::contains,
+                                                              HEARTBEAT_INTERVAL_MS, MISSED_HEARTBEATS, false, clock );
+        watchdog.addListener( events::add );
+        return watchdog;
+    }
+}
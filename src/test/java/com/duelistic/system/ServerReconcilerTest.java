@@ -0,0 +1,274 @@
+package com.duelistic.system;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for matching server names to templates and for the orphan policy of reconciliation.
+ */
+public class ServerReconcilerTest
+    extends TestCase
+{
+    private static final List<String> TEMPLATES = Arrays.asList( "lobby", "bed-wars" );
+
+    private Path baseDir;
+    private CloudDirectories directories;
+    private StubProcessManager processManager;
+    private ServerPlayerRegistry registry;
+    private ServerLauncher launcher;
+    private ServerStandbyPool standbyPool;
+
+    protected void setUp()
+        throws Exception
+    {
+        baseDir = Files.createTempDirectory( "reconcile" );
+        directories = new CloudDirectories( baseDir );
+        directories.ensureTemplateExists( "lobby" );
+        processManager = new StubProcessManager();
+        registry = new ServerPlayerRegistry();
+        LaunchSpecCache specs = new LaunchSpecCache( directories );
+        launcher = new ServerLauncher( directories, processManager, registry, new LaunchPipeline( 1, 1 ),
+                                       new PortAllocator( 41300, 41309 ), new ServerIndexAllocator(),
+                                       new CdsArchiveManager( directories ), new LaunchMetrics(), specs,
+                                       new CpuAffinityPolicy( false, "0", 1, null ),
+                                       new ServerStateJournal( directories.getServerStateFile() ), 1000 );
+        standbyPool = new ServerStandbyPool( directories, launcher, processManager, registry, specs );
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        standbyPool.stop();
+        try ( Stream<Path> paths = Files.walk( baseDir ) )
+        {
+            for ( Path path : paths.sorted( Comparator.reverseOrder() ).toArray( Path[]::new ) )
+            {
+                Files.deleteIfExists( path );
+            }
+        }
+    }
+
+    /**
+     * Verifies cloud server names resolve to their template, including templates with dashes.
+     */
+    public void testTemplateOfServerNames()
+    {
+        assertEquals( "lobby", ServerReconciler.templateOf( "lobby-1", TEMPLATES ) );
+        assertEquals( "bed-wars", ServerReconciler.templateOf( "bed-wars-12", TEMPLATES ) );
+    }
+
+    /**
+     * Verifies names that are not {@code <template>-<index>} are never treated as cloud servers.
+     */
+    public void testForeignNamesHaveNoTemplate()
+    {
+        assertNull( ServerReconciler.templateOf( "irc", TEMPLATES ) );
+        assertNull( ServerReconciler.templateOf( "lobby-", TEMPLATES ) );
+        assertNull( ServerReconciler.templateOf( "lobby-backup", TEMPLATES ) );
+        assertNull( ServerReconciler.templateOf( "skywars-1", TEMPLATES ) );
+        assertNull( ServerReconciler.templateOf( "-1", TEMPLATES ) );
+    }
+
+    /**
+     * Verifies a periodic sweep only marks a directory without process and deletes it on the next sweep.
+     */
+    public void testDirectoryOrphanHandledOnSecondSweep()
+        throws IOException
+    {
+        Files.createDirectories( directories.getTmpServerDir( "lobby-1" ) );
+        ServerReconciler reconciler = newReconciler( true );
+
+        List<ServerReconciler.Change> first = reconciler.reconcile( false );
+        assertChange( first, "lobby-1", ServerReconciler.Orphan.DIRECTORY, ServerReconciler.Outcome.PENDING );
+        assertTrue( Files.exists( directories.getTmpServerDir( "lobby-1" ) ) );
+
+        List<ServerReconciler.Change> second = reconciler.reconcile( false );
+        assertChange( second, "lobby-1", ServerReconciler.Orphan.DIRECTORY, ServerReconciler.Outcome.FIXED );
+        assertFalse( Files.exists( directories.getTmpServerDir( "lobby-1" ) ) );
+    }
+
+    /**
+     * Verifies a cloud server process without directory is stopped.
+     */
+    public void testProcessOrphanStopped()
+        throws IOException
+    {
+        processManager.running.add( "lobby-2" );
+
+        List<ServerReconciler.Change> changes = newReconciler( true ).reconcile( true );
+
+        assertChange( changes, "lobby-2", ServerReconciler.Orphan.PROCESS, ServerReconciler.Outcome.FIXED );
+        assertEquals( Arrays.asList( "lobby-2" ), processManager.stopped );
+    }
+
+    /**
+     * Verifies sessions that are not {@code <template>-<index>} of a known template are never stopped.
+     */
+    public void testForeignSessionsNeverStopped()
+        throws IOException
+    {
+        processManager.running.addAll( Arrays.asList( "irc", "lobby-backup", "skywars-1" ) );
+
+        List<ServerReconciler.Change> changes = newReconciler( true ).reconcile( true );
+
+        assertTrue( changes.isEmpty() );
+        assertTrue( processManager.stopped.isEmpty() );
+    }
+
+    /**
+     * Verifies a running server the cloud does not track is adopted with the port from its properties.
+     */
+    public void testUntrackedServerAdopted()
+        throws IOException
+    {
+        Path serverDir = directories.getTmpServerDir( "lobby-3" );
+        Files.createDirectories( serverDir );
+        Files.write( serverDir.resolve( "server.properties" ), "server-port=41305\n".getBytes( StandardCharsets.UTF_8 ) );
+        processManager.running.add( "lobby-3" );
+        processManager.handles.put( "lobby-3", ProcessHandle.current() );
+        ServerReconciler reconciler = newReconciler( true );
+
+        List<ServerReconciler.Change> changes = reconciler.reconcile( true );
+
+        assertChange( changes, "lobby-3", ServerReconciler.Orphan.UNTRACKED, ServerReconciler.Outcome.FIXED );
+        assertEquals( 41305, launcher.getServerPort( "lobby-3" ) );
+        assertTrue( registry.getServerNames().contains( "lobby-3" ) );
+        assertTrue( processManager.stopped.isEmpty() );
+        assertTrue( reconciler.reconcile( true ).isEmpty() );
+    }
+
+    /**
+     * Verifies a registry entry without process or directory is removed.
+     */
+    public void testRegistryOrphanRemoved()
+        throws IOException
+    {
+        registry.registerServer( "lobby-4", 20, 41304 );
+
+        List<ServerReconciler.Change> changes = newReconciler( true ).reconcile( true );
+
+        assertChange( changes, "lobby-4", ServerReconciler.Orphan.REGISTRY, ServerReconciler.Outcome.FIXED );
+        assertFalse( registry.getServerNames().contains( "lobby-4" ) );
+    }
+
+    /**
+     * Verifies the report policy leaves orphans untouched.
+     */
+    public void testReportPolicyLeavesOrphans()
+        throws IOException
+    {
+        Files.createDirectories( directories.getTmpServerDir( "lobby-1" ) );
+        processManager.running.add( "lobby-2" );
+
+        List<ServerReconciler.Change> changes = newReconciler( false ).reconcile( true );
+
+        assertChange( changes, "lobby-1", ServerReconciler.Orphan.DIRECTORY, ServerReconciler.Outcome.REPORTED );
+        assertChange( changes, "lobby-2", ServerReconciler.Orphan.PROCESS, ServerReconciler.Outcome.REPORTED );
+        assertTrue( Files.exists( directories.getTmpServerDir( "lobby-1" ) ) );
+        assertTrue( processManager.stopped.isEmpty() );
+    }
+
+    /**
+     * Verifies servers being stopped on purpose are left to the code stopping them.
+     */
+    public void testStoppingServerSkipped()
+        throws IOException
+    {
+        Files.createDirectories( directories.getTmpServerDir( "lobby-1" ) );
+        launcher.markStopping( "lobby-1" );
+
+        assertTrue( newReconciler( true ).reconcile( true ).isEmpty() );
+        assertTrue( Files.exists( directories.getTmpServerDir( "lobby-1" ) ) );
+    }
+
+    private ServerReconciler newReconciler( boolean fix )
+    {
+        return new ServerReconciler( directories, processManager, registry, launcher, standbyPool, 0, fix );
+    }
+
+    private static void assertChange( List<ServerReconciler.Change> changes, String serverName,
+                                      ServerReconciler.Orphan orphan, ServerReconciler.Outcome outcome )
+    {
+        for ( ServerReconciler.Change change : changes )
+        {
+            if ( change.getServerName().equals( serverName ) )
+            {
+                assertEquals( orphan, change.getOrphan() );
+                assertEquals( outcome, change.getOutcome() );
+                return;
+            }
+        }
+        fail( "No change for " + serverName + " in " + changes.size() + " changes" );
+    }
+
+    /**
+     * Process manager that only tracks names, so no real process is started or stopped.
+     */
+    private static class StubProcessManager
+        implements ServerProcessManager
+    {
+        private final Set<String> running = new LinkedHashSet<>();
+        private final Map<String, ProcessHandle> handles = new HashMap<>();
+        private final List<String> stopped = new ArrayList<>();
+
+        public void startServer( String name, List<String> command, Path workingDir )
+        {
+            running.add( name );
+        }
+
+        public boolean adoptServer( String name, ProcessHandle process )
+        {
+            running.add( name );
+            handles.put( name, process );
+            return true;
+        }
+
+        public void stopServer( String name )
+        {
+            running.remove( name );
+            handles.remove( name );
+            stopped.add( name );
+        }
+
+        public List<String> listServers()
+        {
+            return new ArrayList<>( running );
+        }
+
+        public void attachServer( String name )
+        {
+        }
+
+        public boolean sendCommand( String name, String command )
+        {
+            return running.contains( name );
+        }
+
+        public ProcessHandle getProcess( String name )
+        {
+            return handles.get( name );
+        }
+
+        public ConsoleBuffer getConsole( String name )
+        {
+            return null;
+        }
+
+        public void setExitListener( ServerExitListener listener )
+        {
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.duelistic.system;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the journal of running servers.
+ */
+public class ServerStateJournalTest
+    extends TestCase
+{
+    private Path dir;
+
+    protected void setUp()
+        throws Exception
+    {
+        dir = Files.createTempDirectory( "journal" );
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        Files.deleteIfExists( dir.resolve( "servers.state" ) );
+        Files.deleteIfExists( dir );
+    }
+
+    /**
+     * Verifies recorded servers are read back by a new journal, as after a cloud restart.
+     */
+    public void testRecordedServersSurviveRestart()
+    {
+        ServerStateJournal journal = new ServerStateJournal( dir.resolve( "servers.state" ) );
+        journal.load();
+        journal.record( new ServerStateJournal.Entry( "lobby-1", "lobby", 30001, 1234, 5000, 6000, true, "2,3" ) );
+        journal.record( new ServerStateJournal.Entry( "duels-2", "duels", 30002, 1235, -1, 6001, false, null ) );
+        journal.markAdvertised( "duels-2" );
+
+        List<ServerStateJournal.Entry> entries = new ServerStateJournal( dir.resolve( "servers.state" ) ).load();
+
+        assertEquals( 2, entries.size() );
+        ServerStateJournal.Entry duels = entries.get( 0 );
+        assertEquals( "duels-2", duels.getServerName() );
+        assertTrue( duels.isAdvertised() );
+        assertNull( duels.getCores() );
+        ServerStateJournal.Entry lobby = entries.get( 1 );
+        assertEquals( "lobby", lobby.getTemplateName() );
+        assertEquals( 30001, lobby.getPort() );
+        assertEquals( 1234, lobby.getPid() );
+        assertEquals( 6000, lobby.getStartedAt() );
+        assertEquals( "2,3", lobby.getCores() );
+    }
+
+    /**
+     * Verifies removed servers are gone from the file and malformed lines are skipped.
+     */
+    public void testRemoveAndMalformedLines()
+        throws Exception
+    {
+        Path file = dir.resolve( "servers.state" );
+        ServerStateJournal journal = new ServerStateJournal( file );
+        journal.record( new ServerStateJournal.Entry( "lobby-1", "lobby", 30001, 1234, 5000, 6000, true, null ) );
+        journal.record( new ServerStateJournal.Entry( "lobby-2", "lobby", 30002, 1235, 5000, 6000, true, null ) );
+        journal.remove( "lobby-1" );
+        Files.write( file, "broken\tline\n".getBytes( StandardCharsets.UTF_8 ), StandardOpenOption.APPEND );
+
+        List<ServerStateJournal.Entry> entries = new ServerStateJournal( file ).load();
+
+        assertEquals( 1, entries.size() );
+        assertEquals( "lobby-2", entries.get( 0 ).getServerName() );
+    }
+
+    /**
+     * Verifies a recorded process is found only while its pid still belongs to it.
+     */
+    public void testFindProcessChecksStartTime()
+    {
+        ProcessHandle self = ProcessHandle.current();
+        ServerStateJournal.Entry entry = ServerStateJournal.Entry.of( "self-1", "self", 30001, self, true, null );
+        assertEquals( self.pid(), entry.findProcess().pid() );
+
+        long startedAt = self.info().startInstant().get().toEpochMilli();
+        ServerStateJournal.Entry reused =
+            new ServerStateJournal.Entry( "self-1", "self", 30001, self.pid(), startedAt - 60000, 0, true, null );
+        assertNull( reused.findProcess() );
+    }
+}